@@ -0,0 +1,153 @@
+import java.util.function.Function;
+
+/**
+ * Describes how to fold table cells into a single value: each cell is first
+ * mapped to a value of type V, and values are merged with an associative
+ * {@link Combiner} that has an identity (a monoid).
+ * <p>
+ * If the aggregator also has an inverse, a value can be taken back out of a
+ * merged result (like subtracting from a sum), which lets {@link TableAggregate}
+ * handle removed and replaced cells in O(1). Without one (like min and max),
+ * the affected rows and columns are reduced again when next read.
+ *
+ * @param <C> the type of cells being aggregated
+ * @param <V> the type of the aggregated value
+ * @author Ismoil Aknazarov
+ */
+public class Aggregator<C, V> {
+
+    private final Function<? super C, ? extends V> lift; // maps a cell to a value
+    private final Combiner<V, V, V> op; // associative merge of two values
+    private final V identity; // op(identity, x) == x
+    private final Combiner<V, V, V> inverse; // inverse.combine(op(x, y), y) == x, or null
+
+    /**
+     * Creates an aggregator.
+     *
+     * @param lift     maps a cell to a value
+     * @param op       associative merge of two values
+     * @param identity the value of an empty aggregate
+     * @param inverse  takes its second operand back out of its first, or null if op has no inverse
+     */
+    public Aggregator(Function<? super C, ? extends V> lift, Combiner<V, V, V> op, V identity,
+            Combiner<V, V, V> inverse) {
+        this.lift = lift;
+        this.op = op;
+        this.identity = identity;
+        this.inverse = inverse;
+    }
+
+    /**
+     * Creates an aggregator that merges cells directly with a combiner.
+     *
+     * @param <T>      the type of cells and of the aggregated value
+     * @param op       associative merge of two cells
+     * @param identity the value of an empty aggregate
+     * @return the aggregator, without an inverse
+     */
+    public static <T> Aggregator<T, T> of(Combiner<T, T, T> op, T identity) {
+        return new Aggregator<>(x -> x, op, identity, null);
+    }
+
+    /**
+     * Creates an invertible aggregator that merges cells directly with a combiner.
+     *
+     * @param <T>      the type of cells and of the aggregated value
+     * @param op       associative merge of two cells
+     * @param identity the value of an empty aggregate
+     * @param inverse  takes its second operand back out of its first
+     * @return the aggregator
+     */
+    public static <T> Aggregator<T, T> of(Combiner<T, T, T> op, T identity, Combiner<T, T, T> inverse) {
+        return new Aggregator<>(x -> x, op, identity, inverse);
+    }
+
+    /**
+     * Sums Integer cells.
+     *
+     * @return an invertible sum aggregator
+     */
+    public static Aggregator<Integer, Integer> sum() {
+        return of(new IntegerAdder(), 0, (total, x) -> total - x);
+    }
+
+    /**
+     * Counts cells.
+     *
+     * @param <T> the type of cells
+     * @return an invertible count aggregator
+     */
+    public static <T> Aggregator<T, Integer> count() {
+        return new Aggregator<>(x -> 1, new IntegerAdder(), 0, (total, x) -> total - x);
+    }
+
+    /**
+     * Finds the smallest cell; null means "no cells".
+     *
+     * @param <T> the type of cells
+     * @return a min aggregator, which has no inverse
+     */
+    public static <T extends Comparable<? super T>> Aggregator<T, T> min() {
+        return of((a, b) -> a == null ? b : b == null ? a : a.compareTo(b) <= 0 ? a : b, null);
+    }
+
+    /**
+     * Finds the largest cell; null means "no cells".
+     *
+     * @param <T> the type of cells
+     * @return a max aggregator, which has no inverse
+     */
+    public static <T extends Comparable<? super T>> Aggregator<T, T> max() {
+        return of((a, b) -> a == null ? b : b == null ? a : a.compareTo(b) >= 0 ? a : b, null);
+    }
+
+    /**
+     * Maps a cell to a value.
+     *
+     * @param cell the cell
+     * @return its value
+     */
+    V lift(C cell) {
+        return lift.apply(cell);
+    }
+
+    /**
+     * Merges two values.
+     *
+     * @param x first value
+     * @param y second value
+     * @return the merged value
+     */
+    V merge(V x, V y) {
+        return op.combine(x, y);
+    }
+
+    /**
+     * Returns the value of an empty aggregate.
+     *
+     * @return the identity
+     */
+    V identity() {
+        return identity;
+    }
+
+    /**
+     * Reports whether values can be taken back out of a merged result.
+     *
+     * @return true if there is an inverse
+     */
+    boolean isInvertible() {
+        return inverse != null;
+    }
+
+    /**
+     * Takes a value back out of a merged result.
+     *
+     * @param total the merged result
+     * @param x     a value that was merged into it
+     * @return total without x
+     */
+    V unmerge(V total, V x) {
+        return inverse.combine(total, x);
+    }
+}
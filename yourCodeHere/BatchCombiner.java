@@ -0,0 +1,32 @@
+/**
+ * A {@link Combiner} that can also combine one first operand with a whole row of
+ * second operands in a single call.
+ * <p>
+ * {@link Table} detects this extension and fills rows through
+ * {@link #combineRow(Object, DynamicArray, DynamicArray)} instead of calling
+ * {@code combine} once per cell, which lets implementations unbox the shared
+ * operand once and run a tight loop over the rest.
+ *
+ * @author Ismoil Aknazarov
+ * @param <A> type of the first operand that the combiner takes
+ * @param <B> type of the second operand that the combiner takes
+ * @param <C> type of the result that the combiner generates
+ */
+
+public interface BatchCombiner<A, B, C> extends Combiner<A, B, C> {
+
+	/**
+	 * Combine operand1 with every value of operands2 and append the results to out,
+	 * in order. The result appended for {@code operands2.get(k)} must equal
+	 * {@code combine(operand1, operands2.get(k))}.
+	 * @param operand1 first operand shared by every combination
+	 * @param operands2 second operands, one per result
+	 * @param out list the {@code operands2.size()} results are appended to
+	 */
+	public default void combineRow(A operand1, DynamicArray<B> operands2, DynamicArray<C> out) {
+		for (int k = 0; k < operands2.size(); k++) {
+			out.add(combine(operand1, operands2.get(k)));
+		}
+	}
+
+}
@@ -0,0 +1,135 @@
+/**
+ * A bounded interning pool that lets equal cell values share one object.
+ * <p>
+ * {@link #intern(Object)} returns the pooled object equal to its argument, or adds
+ * the argument to the pool if there is none, so boards full of equal values (the
+ * same Colors, small sums, repeated strings) keep one object per distinct value
+ * instead of one per cell. The pool holds at most {@code capacity} distinct values
+ * and forgets the least recently used one when full; lookups are O(1) on average.
+ * Every time a value is replaced by an already pooled, different object, one cell
+ * object becomes garbage, which {@link #getSaved()} counts. Values must have
+ * consistent equals and hashCode, and must not change while pooled.
+ *
+ * @param <T> the type of pooled values
+ * @author Ismoil Aknazarov
+ */
+public class CellPool<T> {
+
+    private final CombineCache<T, Object, T> pool; // value -> its canonical object
+    private final Combiner<T, Object, T> key = (value, unused) -> value; // tags pool entries, never called
+
+    private long lookups; // number of non-null values interned
+    private long saved; // number of values replaced by a different, equal object
+
+    /**
+     * Creates an empty pool.
+     *
+     * @param capacity the max number of distinct values kept
+     * @throws IllegalArgumentException if {@code capacity < 1}
+     */
+    public CellPool(int capacity) {
+        pool = new CombineCache<>(capacity);
+    }
+
+    /**
+     * Returns the canonical object equal to value, adding value if there is none.
+     *
+     * @param value the value, may be null
+     * @return an object equal to value, or null if value is null
+     * @implNote O(1) on average
+     */
+    public synchronized T intern(T value) {
+        if (value == null) {
+            return null;
+        }
+        lookups++;
+        T canonical = pool.get(key, value, null);
+        if (canonical == null) {
+            pool.put(key, value, null, value);
+            return value;
+        }
+        if (canonical != value) {
+            saved++;
+        }
+        return canonical;
+    }
+
+    /**
+     * Returns the number of distinct values in the pool.
+     *
+     * @return the pool size
+     * @implNote O(1)
+     */
+    public synchronized int size() {
+        return pool.size();
+    }
+
+    /**
+     * Returns the max number of distinct values kept.
+     *
+     * @return the capacity
+     * @implNote O(1)
+     */
+    public int capacity() {
+        return pool.capacity();
+    }
+
+    /**
+     * Returns the number of non-null values interned.
+     *
+     * @return the number of lookups
+     */
+    public synchronized long getLookups() {
+        return lookups;
+    }
+
+    /**
+     * Returns the number of values that were replaced by an equal object already in
+     * the pool, i.e. how many cell objects deduplication has freed.
+     *
+     * @return the number of objects saved
+     */
+    public synchronized long getSaved() {
+        return saved;
+    }
+
+    /**
+     * Returns the share of interned values that were replaced by a pooled object.
+     *
+     * @return saved / lookups, or 0 if nothing was interned yet
+     */
+    public synchronized double getSavedRatio() {
+        return lookups == 0 ? 0 : (double) saved / lookups;
+    }
+
+    /**
+     * Returns a string representation of this pool.
+     *
+     * @return a string containing the size and the savings
+     */
+    @Override
+    public synchronized String toString() {
+        return "CellPool with " + pool.size() + " of " + pool.capacity() + " values, " + saved + " of "
+                + lookups + " cells deduplicated";
+    }
+
+    // --------------------------------------------------------
+    // example testing code... edit this as much as you want!
+    // --------------------------------------------------------
+
+    public static void main(String[] args) {
+        CellPool<String> pool = new CellPool<>(2);
+        String a = pool.intern(new String("red"));
+        String b = pool.intern(new String("red"));
+        if (a == b && pool.getSaved() == 1 && pool.intern(null) == null && pool.getLookups() == 2) {
+            System.out.println("Yay 1");
+        }
+
+        pool.intern("green");
+        pool.intern("blue"); // evicts "red", the least recently used
+        String c = pool.intern(new String("red"));
+        if (c != a && pool.size() == 2 && pool.getSaved() == 1) {
+            System.out.println("Yay 2");
+        }
+    }
+}
@@ -0,0 +1,124 @@
+/**
+ * Keeps the printed width of the widest cell of every column of a table up to date
+ * as cells come and go, so a table can be printed without measuring every cell first.
+ * <p>
+ * For each column it stores the max width and how many cells have that width.
+ * Adding a cell is O(1). Removing a cell is O(1) too, unless it was the last cell
+ * with the max width; then the column is marked unknown and has to be measured
+ * again through {@link #reset(int)} followed by {@link #add(int, int)} for each cell.
+ * Adding cells to an unknown column does not make it known.
+ *
+ * @author Ismoil Aknazarov
+ */
+class ColumnWidths {
+
+    /**
+     * Width of a column that has to be measured again.
+     */
+    static final int UNKNOWN = -1;
+
+    private DynamicArray<Integer> max; // widest cell of each column, or UNKNOWN
+    private DynamicArray<Integer> count; // number of cells of each column that are max wide
+
+    /**
+     * Creates widths for {@code numCol} columns, all unknown.
+     *
+     * @param numCol the number of columns
+     */
+    ColumnWidths(int numCol) {
+        max = new DynamicArray<>(Math.max(1, numCol));
+        count = new DynamicArray<>(Math.max(1, numCol));
+        for (int c = 0; c < numCol; c++) {
+            max.add(UNKNOWN);
+            count.add(0);
+        }
+    }
+
+    /**
+     * Returns the width of the widest cell in a column.
+     *
+     * @param c column index
+     * @return the width, or {@link #UNKNOWN}
+     */
+    int get(int c) {
+        return max.get(c);
+    }
+
+    /**
+     * Accounts for a new cell in a column.
+     *
+     * @param c     column index
+     * @param width the printed width of the cell
+     */
+    void add(int c, int width) {
+        int m = max.get(c);
+        if (m == UNKNOWN) {
+            return;
+        }
+        if (width > m) {
+            max.set(c, width);
+            count.set(c, 1);
+        } else if (width == m) {
+            count.set(c, count.get(c) + 1);
+        }
+    }
+
+    /**
+     * Accounts for a cell leaving a column.
+     *
+     * @param c     column index
+     * @param width the printed width of the cell
+     */
+    void drop(int c, int width) {
+        if (width == max.get(c)) {
+            int left = count.get(c) - 1;
+            count.set(c, left);
+            if (left == 0) {
+                max.set(c, UNKNOWN);
+            }
+        }
+    }
+
+    /**
+     * Starts measuring a column again as if it had no cells.
+     *
+     * @param c column index
+     */
+    void reset(int c) {
+        max.set(c, 0);
+        count.set(c, 0);
+    }
+
+    /**
+     * Makes room for a new column with no cells yet.
+     *
+     * @param c the index of the new column
+     */
+    void insert(int c) {
+        max.add(c, 0);
+        count.add(c, 0);
+    }
+
+    /**
+     * Forgets a removed column.
+     *
+     * @param c the index of the removed column
+     */
+    void remove(int c) {
+        max.remove(c);
+        count.remove(c);
+    }
+
+    /**
+     * Returns the printed width of a cell value.
+     *
+     * @param value the cell
+     * @return the length of its string form, read without building it for a CharSequence
+     */
+    static int widthOf(Object value) {
+        if (value instanceof CharSequence) {
+            return ((CharSequence) value).length();
+        }
+        return String.valueOf(value).length();
+    }
+}
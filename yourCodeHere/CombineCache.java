@@ -0,0 +1,361 @@
+/**
+ * A bounded memoization cache for {@link Combiner} results.
+ * <p>
+ * Entries are keyed on both operands and the combiner that produced them, so a
+ * value computed by one op is never returned for another. When the cache is full
+ * the least recently used entry is evicted. Lookups, insertions and evictions are
+ * O(1) on average: entries live in a chained hash table and are also threaded on a
+ * doubly linked list in recency order.
+ *
+ * @param <A> type of the first operand
+ * @param <B> type of the second operand
+ * @param <C> type of the combination result
+ * @author Ismoil Aknazarov
+ */
+public class CombineCache<A, B, C> {
+
+    private Entry<A, B, C>[] buckets; // hash table of entries chained on nextInBucket
+    private Entry<A, B, C> newest; // head of the recency list
+    private Entry<A, B, C> oldest; // tail of the recency list, evicted first
+    private int capacity; // max number of entries
+    private int size;
+
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    /**
+     * A cached combination, linked both into its hash bucket and into the recency list.
+     *
+     * @param <A> type of the first operand
+     * @param <B> type of the second operand
+     * @param <C> type of the combination result
+     */
+    private static class Entry<A, B, C> {
+        private final Combiner<A, B, C> op;
+        private final A operand1;
+        private final B operand2;
+        private final int hash;
+        private C value;
+        private Entry<A, B, C> nextInBucket;
+        private Entry<A, B, C> newer;
+        private Entry<A, B, C> older;
+
+        /**
+         * Creates an entry.
+         *
+         * @param op       the combiner that computed value
+         * @param operand1 first operand
+         * @param operand2 second operand
+         * @param hash     the hash of the key
+         * @param value    the combination result
+         */
+        Entry(Combiner<A, B, C> op, A operand1, B operand2, int hash, C value) {
+            this.op = op;
+            this.operand1 = operand1;
+            this.operand2 = operand2;
+            this.hash = hash;
+            this.value = value;
+        }
+    }
+
+    /**
+     * Constructs an empty cache holding at most {@code capacity} entries.
+     *
+     * @param capacity the max number of cached combinations
+     * @throws IllegalArgumentException if {@code capacity < 1}
+     */
+    @SuppressWarnings("unchecked")
+    public CombineCache(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity cannot be less than one!");
+        }
+        this.capacity = capacity;
+        // power of two with a load factor of at most 3/4
+        int tableSize = 2;
+        while (tableSize * 3 / 4 < capacity) {
+            tableSize *= 2;
+        }
+        buckets = (Entry<A, B, C>[]) new Entry<?, ?, ?>[tableSize];
+    }
+
+    /**
+     * Looks up a cached combination and marks it as most recently used.
+     *
+     * @param op       the combiner the value must come from
+     * @param operand1 first operand
+     * @param operand2 second operand
+     * @return the cached value, or null if there is none
+     * @implNote O(1) on average
+     */
+    public C get(Combiner<A, B, C> op, A operand1, B operand2) {
+        Entry<A, B, C> e = find(op, operand1, operand2, hash(op, operand1, operand2));
+        if (e == null) {
+            misses++;
+            return null;
+        }
+        hits++;
+        unlink(e);
+        linkNewest(e);
+        return e.value;
+    }
+
+    /**
+     * Stores a combination, evicting the least recently used entry if the cache is full.
+     * Null values are not cached.
+     *
+     * @param op       the combiner that computed value
+     * @param operand1 first operand
+     * @param operand2 second operand
+     * @param value    the combination result
+     * @implNote O(1) on average
+     */
+    public void put(Combiner<A, B, C> op, A operand1, B operand2, C value) {
+        if (value == null) {
+            return;
+        }
+        int h = hash(op, operand1, operand2);
+        Entry<A, B, C> e = find(op, operand1, operand2, h);
+        if (e != null) {
+            e.value = value;
+            unlink(e);
+            linkNewest(e);
+            return;
+        }
+        if (size == capacity) {
+            Entry<A, B, C> victim = oldest;
+            unlink(victim);
+            removeFromBucket(victim);
+            size--;
+            evictions++;
+        }
+        e = new Entry<>(op, operand1, operand2, h, value);
+        int b = h & (buckets.length - 1);
+        e.nextInBucket = buckets[b];
+        buckets[b] = e;
+        linkNewest(e);
+        size++;
+    }
+
+    /**
+     * Removes one cached combination, e.g. because it is known not to be needed again.
+     *
+     * @param op       the combiner the value came from
+     * @param operand1 first operand
+     * @param operand2 second operand
+     * @return true if an entry was removed
+     * @implNote O(1) on average
+     */
+    public boolean remove(Combiner<A, B, C> op, A operand1, B operand2) {
+        Entry<A, B, C> e = find(op, operand1, operand2, hash(op, operand1, operand2));
+        if (e == null) {
+            return false;
+        }
+        unlink(e);
+        removeFromBucket(e);
+        size--;
+        return true;
+    }
+
+    /**
+     * Removes every entry. Hit, miss and eviction counters are kept.
+     *
+     * @implNote O(capacity)
+     */
+    public void clear() {
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = null;
+        }
+        newest = null;
+        oldest = null;
+        size = 0;
+    }
+
+    /**
+     * Returns the number of cached combinations.
+     *
+     * @return the number of entries
+     * @implNote O(1)
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the max number of cached combinations.
+     *
+     * @return the capacity of the cache
+     * @implNote O(1)
+     */
+    public int capacity() {
+        return capacity;
+    }
+
+    /**
+     * Returns the number of lookups that found a cached value.
+     *
+     * @return the hit count
+     */
+    public long getHits() {
+        return hits;
+    }
+
+    /**
+     * Returns the number of lookups that found nothing.
+     *
+     * @return the miss count
+     */
+    public long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Returns the number of entries dropped to make room for new ones.
+     *
+     * @return the eviction count
+     */
+    public long getEvictions() {
+        return evictions;
+    }
+
+    /**
+     * Returns the fraction of lookups that were hits.
+     *
+     * @return hits / (hits + misses), or 0 if there were no lookups
+     */
+    public double getHitRate() {
+        long lookups = hits + misses;
+        return lookups == 0 ? 0.0 : (double) hits / lookups;
+    }
+
+    /**
+     * Hashes a key; the op is compared by identity.
+     *
+     * @param op       the combiner
+     * @param operand1 first operand
+     * @param operand2 second operand
+     * @return the spread hash code
+     */
+    private static int hash(Object op, Object operand1, Object operand2) {
+        int h = System.identityHashCode(op);
+        h = 31 * h + (operand1 == null ? 0 : operand1.hashCode());
+        h = 31 * h + (operand2 == null ? 0 : operand2.hashCode());
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Finds the entry for a key.
+     *
+     * @param op       the combiner
+     * @param operand1 first operand
+     * @param operand2 second operand
+     * @param h        the hash of the key
+     * @return the entry, or null if the key is not cached
+     */
+    private Entry<A, B, C> find(Combiner<A, B, C> op, A operand1, B operand2, int h) {
+        for (Entry<A, B, C> e = buckets[h & (buckets.length - 1)]; e != null; e = e.nextInBucket) {
+            if (e.hash == h && e.op == op && same(e.operand1, operand1) && same(e.operand2, operand2)) {
+                return e;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Null-safe equality.
+     *
+     * @param x first value
+     * @param y second value
+     * @return true if both are null or x equals y
+     */
+    private static boolean same(Object x, Object y) {
+        return x == null ? y == null : x.equals(y);
+    }
+
+    /**
+     * Unchains an entry from its hash bucket.
+     *
+     * @param e the entry to remove
+     */
+    private void removeFromBucket(Entry<A, B, C> e) {
+        int b = e.hash & (buckets.length - 1);
+        if (buckets[b] == e) {
+            buckets[b] = e.nextInBucket;
+            return;
+        }
+        Entry<A, B, C> prev = buckets[b];
+        while (prev.nextInBucket != e) {
+            prev = prev.nextInBucket;
+        }
+        prev.nextInBucket = e.nextInBucket;
+    }
+
+    /**
+     * Takes an entry out of the recency list.
+     *
+     * @param e the entry to unlink
+     */
+    private void unlink(Entry<A, B, C> e) {
+        if (e.newer != null) {
+            e.newer.older = e.older;
+        } else {
+            newest = e.older;
+        }
+        if (e.older != null) {
+            e.older.newer = e.newer;
+        } else {
+            oldest = e.newer;
+        }
+        e.newer = null;
+        e.older = null;
+    }
+
+    /**
+     * Puts an entry at the most recently used end of the recency list.
+     *
+     * @param e the entry to link
+     */
+    private void linkNewest(Entry<A, B, C> e) {
+        e.older = newest;
+        if (newest != null) {
+            newest.newer = e;
+        }
+        newest = e;
+        if (oldest == null) {
+            oldest = e;
+        }
+    }
+
+    /**
+     * Returns a string representation of this cache.
+     *
+     * @return a string containing the size, capacity and hit rate
+     */
+    @Override
+    public String toString() {
+        return "CombineCache with size " + size + ", capacity " + capacity + ", hit rate " + getHitRate();
+    }
+
+    // --------------------------------------------------------
+    // example testing code... edit this as much as you want!
+    // --------------------------------------------------------
+
+    public static void main(String[] args) {
+        IntegerAdder adder = new IntegerAdder();
+        IntegerTimer timer = new IntegerTimer();
+        CombineCache<Integer, Integer, Integer> cache = new CombineCache<>(2);
+        cache.put(adder, 1, 2, 3);
+        cache.put(timer, 1, 2, 2);
+        if (cache.get(adder, 1, 2) == 3 && cache.get(timer, 1, 2) == 2 && cache.get(adder, 2, 1) == null
+                && cache.getHits() == 2 && cache.getMisses() == 1) {
+            System.out.println("Yay 1");
+        }
+
+        // adder(1,2) is now the least recently used entry
+        cache.put(adder, 5, 5, 10);
+        if (cache.size() == 2 && cache.getEvictions() == 1 && cache.get(adder, 1, 2) == null
+                && cache.get(timer, 1, 2) == 2 && cache.get(adder, 5, 5) == 10) {
+            System.out.println("Yay 2");
+        }
+    }
+}
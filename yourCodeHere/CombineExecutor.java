@@ -0,0 +1,190 @@
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntFunction;
+
+/**
+ * Runs many independent combine calls at once for slow or blocking combiners.
+ * <p>
+ * Each call runs as its own task, on a virtual thread when the running JDK has
+ * them (Java 21+) and on a pooled daemon platform thread otherwise. At most
+ * {@code maxConcurrent} calls are in flight at any time, and a call that runs
+ * longer than the timeout makes the whole run fail. A run either returns every
+ * result or throws, so callers can assemble the results only on success.
+ *
+ * @author Ismoil Aknazarov
+ */
+public class CombineExecutor {
+
+    private final ExecutorService executor; // runs the combine calls
+    private final boolean virtual; // true if executor starts a virtual thread per task
+    private final int maxConcurrent; // max number of calls in flight
+    private final long timeoutMillis; // max time a single call may take
+
+    /**
+     * Creates an executor.
+     *
+     * @param maxConcurrent max number of combine calls running at the same time
+     * @param timeoutMillis max time in milliseconds a single call may run
+     * @throws IllegalArgumentException if {@code maxConcurrent < 1} or {@code timeoutMillis < 1}
+     */
+    public CombineExecutor(int maxConcurrent, long timeoutMillis) {
+        if (maxConcurrent < 1) {
+            throw new IllegalArgumentException("Concurrency cannot be less than one!");
+        }
+        if (timeoutMillis < 1) {
+            throw new IllegalArgumentException("Timeout cannot be less than one!");
+        }
+        this.maxConcurrent = maxConcurrent;
+        this.timeoutMillis = timeoutMillis;
+
+        ExecutorService vt = null;
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            vt = (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            // older JDK: no virtual threads
+        }
+        if (vt != null) {
+            executor = vt;
+            virtual = true;
+        } else {
+            executor = Executors.newCachedThreadPool(r -> {
+                Thread t = new Thread(r, "combine-worker");
+                t.setDaemon(true);
+                return t;
+            });
+            virtual = false;
+        }
+    }
+
+    /**
+     * Reports whether combine calls run on virtual threads.
+     *
+     * @return true on a JDK with virtual threads
+     */
+    public boolean usesVirtualThreads() {
+        return virtual;
+    }
+
+    /**
+     * Returns the max number of combine calls in flight.
+     *
+     * @return the concurrency limit
+     */
+    public int getMaxConcurrent() {
+        return maxConcurrent;
+    }
+
+    /**
+     * Returns the max time a single combine call may run.
+     *
+     * @return the per-call timeout in milliseconds
+     */
+    public long getTimeoutMillis() {
+        return timeoutMillis;
+    }
+
+    /**
+     * Runs {@code call.apply(k)} for every k in [0, n) and collects the results.
+     * <p>
+     * A new call is only started once fewer than maxConcurrent are running. If no
+     * call finishes within the timeout while all slots are taken, or a call is
+     * still running a timeout after it was started, every outstanding call is
+     * cancelled and the run fails.
+     *
+     * @param n    the number of calls
+     * @param call computes result k
+     * @return the n results, result k at index k
+     * @throws IllegalStateException if a call times out or the caller is interrupted
+     * @throws RuntimeException      whatever a call threw, unwrapped
+     */
+    public Object[] run(int n, IntFunction<?> call) {
+        Object[] results = new Object[n];
+        Future<?>[] futures = new Future<?>[n];
+        long[] started = new long[n];
+        Semaphore slots = new Semaphore(maxConcurrent);
+        int submitted = 0;
+        try {
+            for (int k = 0; k < n; k++) {
+                // all slots held for a whole timeout means the oldest call is overdue
+                if (!slots.tryAcquire(timeoutMillis, TimeUnit.MILLISECONDS)) {
+                    throw new IllegalStateException("Combine timed out after " + timeoutMillis + " ms!");
+                }
+                final int index = k;
+                started[k] = System.nanoTime();
+                futures[k] = executor.submit(() -> {
+                    try {
+                        results[index] = call.apply(index);
+                    } finally {
+                        slots.release();
+                    }
+                });
+                submitted++;
+            }
+            for (int k = 0; k < n; k++) {
+                long left = started[k] + TimeUnit.MILLISECONDS.toNanos(timeoutMillis) - System.nanoTime();
+                futures[k].get(Math.max(0, left), TimeUnit.NANOSECONDS);
+            }
+            return results;
+        } catch (java.util.concurrent.TimeoutException e) {
+            cancel(futures, submitted);
+            throw new IllegalStateException("Combine timed out after " + timeoutMillis + " ms!", e);
+        } catch (InterruptedException e) {
+            cancel(futures, submitted);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while combining!", e);
+        } catch (ExecutionException e) {
+            cancel(futures, submitted);
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException(cause);
+        } catch (RuntimeException e) {
+            cancel(futures, submitted);
+            throw e;
+        }
+    }
+
+    /**
+     * Cancels every submitted call that has not finished.
+     *
+     * @param futures the submitted calls
+     * @param count   how many calls were submitted
+     */
+    private static void cancel(Future<?>[] futures, int count) {
+        for (int k = 0; k < count; k++) {
+            futures[k].cancel(true);
+        }
+    }
+
+    /**
+     * Shuts the executor down: calls already running finish, but no new call is
+     * accepted, so a run started afterwards fails. Idle pooled threads then end
+     * instead of lingering until they time out.
+     *
+     * @implNote O(1)
+     */
+    public void close() {
+        executor.shutdown();
+    }
+
+    /**
+     * Returns a string representation of this executor.
+     *
+     * @return a string containing the limits and thread kind
+     */
+    @Override
+    public String toString() {
+        return "CombineExecutor with max " + maxConcurrent + " concurrent calls, timeout " + timeoutMillis
+                + " ms, " + (virtual ? "virtual" : "platform") + " threads";
+    }
+}
@@ -0,0 +1,13 @@
+/**
+ * Marks a {@link Combiner} whose operands can be swapped: for every a and b,
+ * {@code combine(a, b)} equals {@code combine(b, a)}.
+ * <p>
+ * {@link Table} uses this to compute only half of a board whose row and column
+ * headers are the same sequence, and {@link SymmetricTable} only accepts such ops.
+ *
+ * @author Ismoil Aknazarov
+ */
+
+public interface Commutative {
+
+}
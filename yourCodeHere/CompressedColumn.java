@@ -0,0 +1,653 @@
+import java.util.Arrays;
+
+/**
+ * One column of a {@link CompressedGrid}, stored in whichever of three encodings
+ * suits its contents.
+ * <p>
+ * A column with few distinct values keeps a dictionary of them and stores each
+ * cell as the dictionary code of its value. The codes are either bit-packed, using
+ * just enough bits for the dictionary size ({@link CompressedGrid.Encoding#DICTIONARY}),
+ * or run-length encoded as the end index and code of each run of equal cells
+ * ({@link CompressedGrid.Encoding#RUN_LENGTH}). A column with too many distinct
+ * values keeps plain references ({@link CompressedGrid.Encoding#PLAIN}).
+ * <p>
+ * Edits keep the column in a fitting encoding: packed codes get one more bit when
+ * the dictionary outgrows them, runs that have become too short are unpacked into
+ * codes, and once the dictionary grows past the cardinality limit the column is
+ * re-encoded from its live values, which drops codes no cell uses any more and
+ * falls back to plain references if there are still too many.
+ *
+ * @param <T> the type of the cells
+ * @author Ismoil Aknazarov
+ */
+final class CompressedColumn<T> {
+
+    private static final int MIN_RUN = 4; // least average run length to pick run-length encoding
+    private static final int MIN_RLE_CHECK = 16; // shorter columns are always run-length encoded
+
+    private final int maxCardinality; // most distinct values kept in a dictionary
+
+    private CompressedGrid.Encoding encoding;
+    private int size; // number of cells
+    private int encodedSize; // size at the last full re-encode
+
+    private Object[] plain; // PLAIN: the cells
+
+    private Object[] dict; // DICTIONARY and RUN_LENGTH: value of each code
+    private int dictSize; // number of codes handed out
+    private int[] lookup; // open addressing table of code + 1, 0 for an empty slot
+
+    private long[] bits; // DICTIONARY: codes packed width bits each
+    private int width; // DICTIONARY: bits per code
+
+    private int[] runEnd; // RUN_LENGTH: index after the last cell of each run
+    private int[] runCode; // RUN_LENGTH: code of each run
+    private int runs; // RUN_LENGTH: number of runs
+
+    /**
+     * Creates a column holding the given cells, in the best encoding for them.
+     *
+     * @param cells          the cells, not kept
+     * @param maxCardinality most distinct values kept in a dictionary
+     * @implNote O(N)
+     */
+    CompressedColumn(DynamicArray<T> cells, int maxCardinality) {
+        this.maxCardinality = maxCardinality;
+        Object[] values = new Object[cells.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = cells.get(i);
+        }
+        encode(values, values.length);
+    }
+
+    /**
+     * Returns the number of cells.
+     *
+     * @return the column length
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Returns the current encoding.
+     *
+     * @return the encoding
+     */
+    CompressedGrid.Encoding encoding() {
+        return encoding;
+    }
+
+    /**
+     * Returns the number of dictionary codes, counting ones no cell uses any more.
+     *
+     * @return the dictionary size, 0 for a plain column
+     */
+    int dictionarySize() {
+        return encoding == CompressedGrid.Encoding.PLAIN ? 0 : dictSize;
+    }
+
+    /**
+     * Returns one cell.
+     *
+     * @param index the cell index, already checked
+     * @return the cell
+     * @implNote O(1), O(log runs) when run-length encoded
+     */
+    @SuppressWarnings("unchecked")
+    T get(int index) {
+        switch (encoding) {
+            case PLAIN:
+                return (T) plain[index];
+            case DICTIONARY:
+                return (T) dict[code(index)];
+            default:
+                return (T) dict[runCode[runOf(index)]];
+        }
+    }
+
+    /**
+     * Appends every cell, in order, to a list. Runs and packed codes are decoded
+     * sequentially instead of one lookup per cell.
+     *
+     * @param out the list
+     * @implNote O(N)
+     */
+    @SuppressWarnings("unchecked")
+    void decodeInto(DynamicArray<T> out) {
+        switch (encoding) {
+            case PLAIN:
+                for (int i = 0; i < size; i++) {
+                    out.add((T) plain[i]);
+                }
+                break;
+            case DICTIONARY:
+                long m = (1L << width) - 1;
+                long pos = 0;
+                for (int i = 0; i < size; i++, pos += width) {
+                    int w = (int) (pos >>> 6);
+                    int off = (int) (pos & 63);
+                    long v = bits[w] >>> off;
+                    if (off + width > 64) {
+                        v |= bits[w + 1] << (64 - off);
+                    }
+                    out.add((T) dict[(int) (v & m)]);
+                }
+                break;
+            default:
+                int start = 0;
+                for (int k = 0; k < runs; k++) {
+                    T value = (T) dict[runCode[k]];
+                    for (int i = start; i < runEnd[k]; i++) {
+                        out.add(value);
+                    }
+                    start = runEnd[k];
+                }
+        }
+    }
+
+    /**
+     * Replaces one cell.
+     *
+     * @param index the cell index, already checked
+     * @param value the new value
+     * @return the old value
+     * @implNote O(1) amortized, O(runs) when run-length encoded
+     */
+    T set(int index, T value) {
+        T old = get(index);
+        if (encoding == CompressedGrid.Encoding.PLAIN) {
+            plain[index] = value;
+            return old;
+        }
+        int c = codeOf(value);
+        if (c < 0) {
+            // the dictionary grew too big; re-encode and try again in the new encoding
+            Object[] values = toArray(size);
+            values[index] = value;
+            encode(values, size);
+            return old;
+        }
+        if (encoding == CompressedGrid.Encoding.DICTIONARY) {
+            putCode(index, c);
+        } else {
+            setRun(index, c);
+            checkRuns();
+        }
+        return old;
+    }
+
+    /**
+     * Inserts a cell, shifting later cells down.
+     *
+     * @param index the index of the new cell, from 0 to size, already checked
+     * @param value the value
+     * @implNote O(N), O(runs) when run-length encoded, O(1) amortized when appending
+     */
+    void add(int index, T value) {
+        insert(index, value);
+        if (size >= 2 * encodedSize + MIN_RLE_CHECK) {
+            // the column doubled since its values were last counted; check the encoding still fits
+            compact();
+        }
+    }
+
+    /**
+     * Inserts a cell in the current encoding.
+     *
+     * @param index the index of the new cell
+     * @param value the value
+     */
+    private void insert(int index, T value) {
+        if (encoding == CompressedGrid.Encoding.PLAIN) {
+            if (size == plain.length) {
+                plain = Arrays.copyOf(plain, Math.max(2, size * 2));
+            }
+            System.arraycopy(plain, index, plain, index + 1, size - index);
+            plain[index] = value;
+            size++;
+            return;
+        }
+        int c = codeOf(value);
+        if (c < 0) {
+            Object[] values = toArray(size + 1);
+            System.arraycopy(values, index, values, index + 1, size - index);
+            values[index] = value;
+            encode(values, size + 1);
+            return;
+        }
+        if (encoding == CompressedGrid.Encoding.DICTIONARY) {
+            ensureBits(size + 1);
+            for (int i = size; i > index; i--) {
+                putCode(i, code(i - 1));
+            }
+            size++;
+            putCode(index, c);
+            return;
+        }
+        if (runs == 0) {
+            ensureRuns(1);
+            runEnd[0] = 1;
+            runCode[0] = c;
+            runs = 1;
+            size = 1;
+            return;
+        }
+        // grow the run the new cell lands in, then give the cell its own code
+        int k = index == size ? runs - 1 : runOf(index);
+        for (int j = k; j < runs; j++) {
+            runEnd[j]++;
+        }
+        size++;
+        setRun(index, c);
+        checkRuns();
+    }
+
+    /**
+     * Removes a cell, shifting later cells up.
+     *
+     * @param index the cell index, already checked
+     * @return the removed value
+     * @implNote O(N), O(runs) when run-length encoded
+     */
+    T remove(int index) {
+        T old = get(index);
+        switch (encoding) {
+            case PLAIN:
+                System.arraycopy(plain, index + 1, plain, index, size - index - 1);
+                plain[size - 1] = null;
+                break;
+            case DICTIONARY:
+                for (int i = index; i < size - 1; i++) {
+                    putCode(i, code(i + 1));
+                }
+                break;
+            default:
+                int k = runOf(index);
+                for (int j = k; j < runs; j++) {
+                    runEnd[j]--;
+                }
+                int start = k == 0 ? 0 : runEnd[k - 1];
+                if (runEnd[k] == start) {
+                    removeRuns(k, 1);
+                    mergeRuns(k - 1);
+                }
+        }
+        size--;
+        return old;
+    }
+
+    /**
+     * Picks the best encoding for the current cells and rebuilds the column in it,
+     * dropping dictionary codes no cell uses.
+     *
+     * @implNote O(N)
+     */
+    void compact() {
+        encode(toArray(size), size);
+    }
+
+    /**
+     * Rebuilds the column from its cells: counts the distinct values and the runs
+     * and picks plain references, run-length or bit-packed codes.
+     *
+     * @param values the cells, may be longer than n
+     * @param n      the number of cells
+     */
+    private void encode(Object[] values, int n) {
+        size = n;
+        encodedSize = n;
+        encoding = CompressedGrid.Encoding.RUN_LENGTH; // no packed codes to widen while counting
+        resetDictionary();
+        int[] codes = new int[n];
+        int numRuns = 0;
+        for (int i = 0; i < n; i++) {
+            codes[i] = codeOf(values[i]);
+            if (codes[i] < 0) {
+                // too many distinct values for a dictionary
+                encoding = CompressedGrid.Encoding.PLAIN;
+                plain = Arrays.copyOf(values, Math.max(2, n));
+                Arrays.fill(plain, n, plain.length, null);
+                dict = null;
+                lookup = null;
+                bits = null;
+                runEnd = null;
+                runCode = null;
+                return;
+            }
+            if (i == 0 || codes[i] != codes[i - 1]) {
+                numRuns++;
+            }
+        }
+        plain = null;
+        if (n < MIN_RLE_CHECK || (long) numRuns * MIN_RUN <= n) {
+            encoding = CompressedGrid.Encoding.RUN_LENGTH;
+            bits = null;
+            runEnd = new int[Math.max(2, numRuns)];
+            runCode = new int[runEnd.length];
+            runs = 0;
+            for (int i = 0; i < n; i++) {
+                if (i == 0 || codes[i] != codes[i - 1]) {
+                    runCode[runs++] = codes[i];
+                }
+                runEnd[runs - 1] = i + 1;
+            }
+        } else {
+            toPacked(codes, n);
+        }
+    }
+
+    /**
+     * Switches to bit-packed codes.
+     *
+     * @param codes the code of each cell
+     * @param n     the number of cells
+     */
+    private void toPacked(int[] codes, int n) {
+        encoding = CompressedGrid.Encoding.DICTIONARY;
+        runEnd = null;
+        runCode = null;
+        runs = 0;
+        width = bitsFor(dictSize);
+        bits = new long[words(Math.max(2, n), width)];
+        for (int i = 0; i < n; i++) {
+            putCode(i, codes[i]);
+        }
+    }
+
+    /**
+     * Copies the cells into a new array.
+     *
+     * @param length the array length, at least size
+     * @return the cells followed by nulls
+     */
+    private Object[] toArray(int length) {
+        DynamicArray<T> cells = new DynamicArray<>(Math.max(1, size));
+        decodeInto(cells);
+        Object[] values = new Object[length];
+        for (int i = 0; i < size; i++) {
+            values[i] = cells.get(i);
+        }
+        return values;
+    }
+
+    // ---------------------------- dictionary ----------------------------
+
+    /**
+     * Empties the dictionary.
+     */
+    private void resetDictionary() {
+        dict = new Object[4];
+        dictSize = 0;
+        lookup = new int[8];
+    }
+
+    /**
+     * Returns the code of a value, giving it a new code if it has none.
+     *
+     * @param value the value, may be null
+     * @return the code, or -1 if a new code would exceed the cardinality limit
+     * @implNote O(1) on average
+     */
+    private int codeOf(Object value) {
+        int mask = lookup.length - 1;
+        int b = spread(value) & mask;
+        while (lookup[b] != 0) {
+            Object d = dict[lookup[b] - 1];
+            if (value == null ? d == null : value.equals(d)) {
+                return lookup[b] - 1;
+            }
+            b = (b + 1) & mask;
+        }
+        if (dictSize == maxCardinality) {
+            return -1;
+        }
+        if (dictSize == dict.length) {
+            dict = Arrays.copyOf(dict, dictSize * 2);
+        }
+        dict[dictSize] = value;
+        lookup[b] = ++dictSize;
+        if (dictSize * 4 > lookup.length * 3) {
+            rehash();
+        }
+        if (encoding == CompressedGrid.Encoding.DICTIONARY && (dictSize - 1) >>> width != 0) {
+            widen();
+        }
+        return dictSize - 1;
+    }
+
+    /**
+     * Doubles the lookup table.
+     */
+    private void rehash() {
+        lookup = new int[lookup.length * 2];
+        int mask = lookup.length - 1;
+        for (int code = 0; code < dictSize; code++) {
+            int b = spread(dict[code]) & mask;
+            while (lookup[b] != 0) {
+                b = (b + 1) & mask;
+            }
+            lookup[b] = code + 1;
+        }
+    }
+
+    /**
+     * Mixes the hash code of a value.
+     *
+     * @param value the value, may be null
+     * @return the spread hash
+     */
+    private static int spread(Object value) {
+        int h = value == null ? 0 : value.hashCode() * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    // ---------------------------- packed codes ----------------------------
+
+    /**
+     * Reads a packed code.
+     *
+     * @param index the cell index
+     * @return the code
+     */
+    private int code(int index) {
+        long pos = (long) index * width;
+        int w = (int) (pos >>> 6);
+        int off = (int) (pos & 63);
+        long v = bits[w] >>> off;
+        if (off + width > 64) {
+            v |= bits[w + 1] << (64 - off);
+        }
+        return (int) (v & ((1L << width) - 1));
+    }
+
+    /**
+     * Writes a packed code.
+     *
+     * @param index the cell index
+     * @param c     the code, fitting in width bits
+     */
+    private void putCode(int index, int c) {
+        long pos = (long) index * width;
+        int w = (int) (pos >>> 6);
+        int off = (int) (pos & 63);
+        long m = (1L << width) - 1;
+        bits[w] = bits[w] & ~(m << off) | (long) c << off;
+        if (off + width > 64) {
+            int spill = 64 - off;
+            bits[w + 1] = bits[w + 1] & ~(m >>> spill) | (long) c >>> spill;
+        }
+    }
+
+    /**
+     * Makes room for a number of packed codes.
+     *
+     * @param n the number of codes
+     */
+    private void ensureBits(int n) {
+        if (words(n, width) > bits.length) {
+            bits = Arrays.copyOf(bits, Math.max(words(n, width), bits.length * 2));
+        }
+    }
+
+    /**
+     * Repacks the codes with one more bit each, once the dictionary outgrew them.
+     */
+    private void widen() {
+        int[] codes = new int[size];
+        for (int i = 0; i < size; i++) {
+            codes[i] = code(i);
+        }
+        width++;
+        bits = new long[words(Math.max(2, size), width)];
+        for (int i = 0; i < size; i++) {
+            putCode(i, codes[i]);
+        }
+    }
+
+    /**
+     * Returns the bits needed to tell a number of codes apart.
+     *
+     * @param n the number of codes
+     * @return at least 1
+     */
+    private static int bitsFor(int n) {
+        return Math.max(1, 32 - Integer.numberOfLeadingZeros(n - 1));
+    }
+
+    /**
+     * Returns the longs needed to pack a number of codes.
+     *
+     * @param n     the number of codes
+     * @param width bits per code
+     * @return the number of longs
+     */
+    private static int words(int n, int width) {
+        return (int) (((long) n * width + 63) >>> 6);
+    }
+
+    // ---------------------------- runs ----------------------------
+
+    /**
+     * Finds the run holding a cell.
+     *
+     * @param index the cell index
+     * @return the first run whose end is past index
+     * @implNote O(log runs)
+     */
+    private int runOf(int index) {
+        int lo = 0;
+        int hi = runs - 1;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (runEnd[mid] > index) {
+                hi = mid;
+            } else {
+                lo = mid + 1;
+            }
+        }
+        return lo;
+    }
+
+    /**
+     * Gives one cell a code, splitting its run and merging equal neighbours.
+     *
+     * @param index the cell index
+     * @param c     the code
+     */
+    private void setRun(int index, int c) {
+        int k = runOf(index);
+        int old = runCode[k];
+        if (old == c) {
+            return;
+        }
+        int start = k == 0 ? 0 : runEnd[k - 1];
+        int end = runEnd[k];
+        // run k becomes up to three runs: [start, index), [index, index + 1), [index + 1, end)
+        int pieces = 1 + (index > start ? 1 : 0) + (end > index + 1 ? 1 : 0);
+        insertRuns(k + 1, pieces - 1);
+        int j = k;
+        if (index > start) {
+            runEnd[j] = index;
+            runCode[j++] = old;
+        }
+        runEnd[j] = index + 1;
+        runCode[j] = c;
+        if (end > index + 1) {
+            runEnd[j + 1] = end;
+            runCode[j + 1] = old;
+        }
+        // only the new single-cell run can equal a neighbour
+        mergeRuns(j);
+        mergeRuns(j - 1);
+    }
+
+    /**
+     * Merges a run into the next one if both have the same code.
+     *
+     * @param k the run index, may be out of range
+     */
+    private void mergeRuns(int k) {
+        if (k >= 0 && k + 1 < runs && runCode[k] == runCode[k + 1]) {
+            removeRuns(k, 1);
+        }
+    }
+
+    /**
+     * Opens a gap in the run arrays.
+     *
+     * @param k     index of the first new run
+     * @param count number of new runs
+     */
+    private void insertRuns(int k, int count) {
+        if (count == 0) {
+            return;
+        }
+        ensureRuns(runs + count);
+        System.arraycopy(runEnd, k, runEnd, k + count, runs - k);
+        System.arraycopy(runCode, k, runCode, k + count, runs - k);
+        runs += count;
+    }
+
+    /**
+     * Deletes runs; the run after them keeps its end and so takes over their cells.
+     *
+     * @param k     index of the first deleted run
+     * @param count number of deleted runs
+     */
+    private void removeRuns(int k, int count) {
+        System.arraycopy(runEnd, k + count, runEnd, k, runs - k - count);
+        System.arraycopy(runCode, k + count, runCode, k, runs - k - count);
+        runs -= count;
+    }
+
+    /**
+     * Makes room for a number of runs.
+     *
+     * @param n the number of runs
+     */
+    private void ensureRuns(int n) {
+        if (runEnd == null) {
+            runEnd = new int[Math.max(2, n)];
+            runCode = new int[runEnd.length];
+        } else if (n > runEnd.length) {
+            runEnd = Arrays.copyOf(runEnd, Math.max(n, runEnd.length * 2));
+            runCode = Arrays.copyOf(runCode, runEnd.length);
+        }
+    }
+
+    /**
+     * Switches from runs to packed codes once the runs got too short to pay off.
+     */
+    private void checkRuns() {
+        if (size >= MIN_RLE_CHECK && runs * 2 > size) {
+            int[] codes = new int[size];
+            int start = 0;
+            for (int k = 0; k < runs; k++) {
+                Arrays.fill(codes, start, runEnd[k], runCode[k]);
+                start = runEnd[k];
+            }
+            toPacked(codes, size);
+        }
+    }
+}
@@ -0,0 +1,382 @@
+/**
+ * A two-dimensional grid with the same operations as {@link DynamicGrid}, stored
+ * column by column in compressed form.
+ * <p>
+ * Boards tend to repeat themselves down a column: long runs of one color, a few
+ * distinct counts. Each column keeps a dictionary of its distinct values and
+ * stores the cells as dictionary codes, either bit-packed with just enough bits
+ * per code or run-length encoded when runs are long, so a column of a million
+ * cells with four values takes a quarter of a megabyte or a few runs instead of
+ * a million references. A column whose number of distinct values crosses the
+ * cardinality limit is re-encoded automatically, falling back to plain references.
+ * <p>
+ * Point reads stay cheap: O(1) for packed codes and O(log runs) for runs. Whole
+ * columns are best read with {@link #getCol(int)}, which decodes runs and packed
+ * codes sequentially. Row operations touch every column, so they cost O(RC)
+ * rather than O(R) as in {@link DynamicGrid}; the grid suits boards that are read
+ * far more often than their rows are inserted or removed in the middle.
+ *
+ * @param <T> the type of elements stored in this grid
+ * @author Ismoil Aknazarov
+ */
+public class CompressedGrid<T> {
+
+    /**
+     * Cardinality limit used when none is given.
+     */
+    public static final int DEFAULT_MAX_CARDINALITY = 1 << 12;
+
+    /**
+     * How a column stores its cells.
+     */
+    public enum Encoding {
+        /**
+         * One reference per cell.
+         */
+        PLAIN,
+        /**
+         * A dictionary of distinct values and one bit-packed code per cell.
+         */
+        DICTIONARY,
+        /**
+         * A dictionary of distinct values and the end and code of each run of equal cells.
+         */
+        RUN_LENGTH
+    }
+
+    private final DynamicArray<CompressedColumn<T>> columns; // underlying storage, one entry per column
+    private final int maxCardinality; // most distinct values a column keeps in a dictionary
+    private int numRow;
+
+    /**
+     * Constructs an empty grid with the default cardinality limit.
+     */
+    public CompressedGrid() {
+        this(DEFAULT_MAX_CARDINALITY);
+    }
+
+    /**
+     * Constructs an empty grid.
+     *
+     * @param maxCardinality most distinct values a column keeps in a dictionary
+     *                       before it falls back to plain references
+     * @throws IllegalArgumentException if {@code maxCardinality < 1}
+     */
+    public CompressedGrid(int maxCardinality) {
+        if (maxCardinality < 1) {
+            throw new IllegalArgumentException("Cardinality cannot be less than one!");
+        }
+        this.maxCardinality = maxCardinality;
+        columns = new DynamicArray<>();
+    }
+
+    /**
+     * Builds a compressed copy of a grid with the default cardinality limit.
+     *
+     * @param grid the grid to copy
+     * @param <T>  the type of the cells
+     * @return the compressed grid
+     * @implNote O(RC)
+     */
+    public static <T> CompressedGrid<T> of(DynamicGrid<T> grid) {
+        CompressedGrid<T> out = new CompressedGrid<>();
+        out.numRow = grid.getNumRow();
+        for (int c = 0; c < grid.getNumCol(); c++) {
+            DynamicArray<T> col = new DynamicArray<>(Math.max(1, out.numRow));
+            for (int r = 0; r < out.numRow; r++) {
+                col.add(grid.get(r, c));
+            }
+            out.columns.add(new CompressedColumn<>(col, out.maxCardinality));
+        }
+        return out;
+    }
+
+    /**
+     * Returns the number of rows in the grid.
+     *
+     * @return the number of rows
+     * @implNote O(1)
+     */
+    public int getNumRow() {
+        return numRow;
+    }
+
+    /**
+     * Returns the number of columns in the grid.
+     *
+     * @return the number of columns (0 if grid is empty)
+     * @implNote O(1)
+     */
+    public int getNumCol() {
+        return numRow == 0 ? 0 : columns.size();
+    }
+
+    /**
+     * Retrieves the element at the specified row and column.
+     *
+     * @param indexRow the row index
+     * @param indexCol the column index
+     * @return the element at the given location
+     * @throws IndexOutOfBoundsException if indices are invalid
+     * @implNote O(1), O(log runs) for a run-length encoded column
+     */
+    public T get(int indexRow, int indexCol) {
+        check(indexRow, indexCol);
+        return columns.get(indexCol).get(indexRow);
+    }
+
+    /**
+     * Replaces the value at the specified row and column.
+     *
+     * @param indexRow the row index
+     * @param indexCol the column index
+     * @param value    the new value to set
+     * @return the old value at the given location
+     * @throws IndexOutOfBoundsException if indices are invalid
+     * @implNote O(1) amortized, O(runs) for a run-length encoded column
+     */
+    public T set(int indexRow, int indexCol, T value) {
+        check(indexRow, indexCol);
+        return columns.get(indexCol).set(indexRow, value);
+    }
+
+    /**
+     * Adds a new row at the specified index.
+     * <p>
+     * The new row must match the existing column size (unless the grid is empty).
+     *
+     * @param index  the row index where the new row should be inserted
+     * @param newRow the row to insert
+     * @return true if the row was successfully added, false otherwise
+     * @implNote O(RC), O(C) amortized when appending
+     */
+    public boolean addRow(int index, DynamicArray<T> newRow) {
+        if (index < 0 || index > numRow) {
+            return false;
+        }
+        if (numRow == 0) {
+            while (columns.size() > 0) {
+                columns.remove(columns.size() - 1);
+            }
+            for (int c = 0; c < newRow.size(); c++) {
+                DynamicArray<T> col = new DynamicArray<>(1);
+                col.add(newRow.get(c));
+                columns.add(new CompressedColumn<>(col, maxCardinality));
+            }
+            numRow = 1;
+            return true;
+        }
+        if (newRow.size() != columns.size()) {
+            return false;
+        }
+        for (int c = 0; c < columns.size(); c++) {
+            columns.get(c).add(index, newRow.get(c));
+        }
+        numRow++;
+        return true;
+    }
+
+    /**
+     * Adds a new column at the specified index.
+     *
+     * @param index  the column index where the newCol should be inserted
+     * @param newCol col to insert
+     * @return true if the column was added succesfully, false otherwise
+     * @implNote O(R + C)
+     */
+    public boolean addCol(int index, DynamicArray<T> newCol) {
+        if (numRow == 0) {
+            return index == 0 && newCol.size() == 0;
+        }
+        if (newCol.size() != numRow || index < 0 || index > columns.size()) {
+            return false;
+        }
+        columns.add(index, new CompressedColumn<>(newCol, maxCardinality));
+        return true;
+    }
+
+    /**
+     * Removes and returns the row at the specified index.
+     *
+     * @param index the row index
+     * @return the removed row
+     * @throws IndexOutOfBoundsException if index is invalid
+     * @implNote O(RC), O(C log runs) when every column is run-length encoded
+     */
+    public DynamicArray<T> removeRow(int index) {
+        if (index < 0 || index >= numRow) {
+            throw new IndexOutOfBoundsException("Out of bound!");
+        }
+        DynamicArray<T> row = new DynamicArray<>(Math.max(1, columns.size()));
+        for (int c = 0; c < columns.size(); c++) {
+            row.add(columns.get(c).remove(index));
+        }
+        numRow--;
+        return row;
+    }
+
+    /**
+     * Removes and returns the column at the specified index.
+     *
+     * @param index the column index
+     * @return the removed column
+     * @throws IndexOutOfBoundsException if index is invalid
+     * @implNote O(R + C)
+     */
+    public DynamicArray<T> removeCol(int index) {
+        if (index < 0 || index >= getNumCol()) {
+            throw new IndexOutOfBoundsException("Out of bound!");
+        }
+        DynamicArray<T> col = new DynamicArray<>(numRow);
+        columns.remove(index).decodeInto(col);
+        return col;
+    }
+
+    /**
+     * Returns a copy of one column, decoded sequentially.
+     *
+     * @param index the column index
+     * @return the cells of the column, top to bottom
+     * @throws IndexOutOfBoundsException if index is invalid
+     * @implNote O(R)
+     */
+    public DynamicArray<T> getCol(int index) {
+        if (index < 0 || index >= getNumCol()) {
+            throw new IndexOutOfBoundsException("Out of bound!");
+        }
+        DynamicArray<T> col = new DynamicArray<>(numRow);
+        columns.get(index).decodeInto(col);
+        return col;
+    }
+
+    /**
+     * Returns how a column currently stores its cells.
+     *
+     * @param index the column index
+     * @return the encoding
+     * @throws IndexOutOfBoundsException if index is invalid
+     * @implNote O(1)
+     */
+    public Encoding getEncoding(int index) {
+        if (index < 0 || index >= getNumCol()) {
+            throw new IndexOutOfBoundsException("Out of bound!");
+        }
+        return columns.get(index).encoding();
+    }
+
+    /**
+     * Re-encodes every column from its current cells, picking the best encoding and
+     * dropping dictionary entries no cell uses any more, e.g. after many edits.
+     *
+     * @implNote O(RC)
+     */
+    public void compact() {
+        for (int c = 0; c < columns.size(); c++) {
+            columns.get(c).compact();
+        }
+    }
+
+    /**
+     * Copies the grid into a {@link DynamicGrid}.
+     *
+     * @return an uncompressed copy
+     * @implNote O(RC)
+     */
+    public DynamicGrid<T> toDynamicGrid() {
+        DynamicGrid<T> grid = new DynamicGrid<>();
+        DynamicArray<DynamicArray<T>> cols = new DynamicArray<>(Math.max(1, columns.size()));
+        for (int c = 0; c < getNumCol(); c++) {
+            cols.add(getCol(c));
+        }
+        for (int r = 0; r < numRow; r++) {
+            DynamicArray<T> row = new DynamicArray<>(Math.max(1, cols.size()));
+            for (int c = 0; c < cols.size(); c++) {
+                row.add(cols.get(c).get(r));
+            }
+            grid.adoptRow(row);
+        }
+        return grid;
+    }
+
+    /**
+     * Throws if a cell index is invalid.
+     *
+     * @param indexRow the row index
+     * @param indexCol the column index
+     */
+    private void check(int indexRow, int indexCol) {
+        if (indexRow >= numRow || indexRow < 0) {
+            throw new IndexOutOfBoundsException("Row of bound!");
+        }
+        if (indexCol < 0 || indexCol >= columns.size()) {
+            throw new IndexOutOfBoundsException("Column out of bound!");
+        }
+    }
+
+    /**
+     * Returns a string representation of this grid.
+     *
+     * @return a simple string description
+     */
+    @Override
+    public String toString() {
+        return "compressed grid";
+    }
+
+    // --------------------------------------------------------
+    // example testing code... edit this as much as you want!
+    // --------------------------------------------------------
+
+    public static void main(String[] args) {
+        // same checks as DynamicGrid
+        CompressedGrid<Integer> igrid = new CompressedGrid<>();
+        DynamicArray<Integer> irow = new DynamicArray<>();
+        irow.add(5);
+        irow.add(10);
+        DynamicArray<Integer> icol = new DynamicArray<>();
+        icol.add(-10);
+        if (igrid.addRow(0, irow) && igrid.getNumRow() == 1 && igrid.getNumCol() == 2 && !igrid.addRow(2, irow)
+                && igrid.addCol(1, icol) && igrid.get(0, 1) == -10 && igrid.set(0, 2, 7) == 10
+                && igrid.get(0, 2) == 7 && igrid.removeCol(0).get(0) == 5 && igrid.getNumCol() == 2) {
+            System.out.println("Yay 1");
+        }
+
+        // a long column of runs, one with few values, one with many
+        CompressedGrid<Integer> grid = new CompressedGrid<>(64);
+        for (int r = 0; r < 10000; r++) {
+            DynamicArray<Integer> row = new DynamicArray<>();
+            row.add(r / 500);
+            row.add(r % 3);
+            row.add(r);
+            grid.addRow(r, row);
+        }
+        if (grid.getEncoding(0) == Encoding.RUN_LENGTH && grid.getEncoding(1) == Encoding.DICTIONARY
+                && grid.getEncoding(2) == Encoding.PLAIN && grid.get(4321, 0) == 8 && grid.get(4321, 1) == 1
+                && grid.get(4321, 2) == 4321 && grid.getCol(0).get(9999) == 19) {
+            System.out.println("Yay 2");
+        }
+
+        // edits keep every column consistent with a plain copy
+        DynamicGrid<Integer> copy = grid.toDynamicGrid();
+        grid.set(250, 0, 99);
+        copy.set(250, 0, 99);
+        grid.removeRow(17);
+        copy.removeRow(17);
+        DynamicArray<Integer> row = new DynamicArray<>();
+        row.add(1);
+        row.add(2);
+        row.add(3);
+        grid.addRow(600, row);
+        copy.addRow(600, row);
+        grid.compact();
+        boolean same = true;
+        for (int r = 0; r < copy.getNumRow(); r++) {
+            for (int c = 0; c < copy.getNumCol(); c++) {
+                same = same && grid.get(r, c).equals(copy.get(r, c));
+            }
+        }
+        if (same && grid.getNumRow() == 10000 && grid.getEncoding(0) == Encoding.RUN_LENGTH) {
+            System.out.println("Yay 3");
+        }
+    }
+}
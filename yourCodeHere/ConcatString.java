@@ -0,0 +1,146 @@
+/**
+ * A view of two strings joined by a separator, without copying their chars.
+ * <p>
+ * The cell only holds references to the strings it joins, which in a table are
+ * usually the row and column headers themselves, so a board of such cells takes
+ * O(RC) references instead of O(RCL) chars. {@link #length()} and
+ * {@link #charAt(int)} are O(1), and appending it to a {@link StringBuilder} or
+ * {@link java.io.Writer} streams its chars. {@link #toString()} builds the joined
+ * String with three bulk copies.
+ *
+ * @author Ismoil Aknazarov
+ */
+public class ConcatString implements CharSequence {
+
+    private final String left;
+    private final String separator;
+    private final String right;
+
+    /**
+     * Creates the view of left + separator + right.
+     *
+     * @param left      the first string
+     * @param separator the string between them
+     * @param right     the second string
+     * @throws IllegalArgumentException if the result would be longer than a String can be
+     */
+    public ConcatString(String left, String separator, String right) {
+        if ((long) left.length() + separator.length() + right.length() > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("String too long!");
+        }
+        this.left = left;
+        this.separator = separator;
+        this.right = right;
+    }
+
+    /**
+     * Returns the number of chars of the joined string.
+     *
+     * @return the length
+     * @implNote O(1)
+     */
+    @Override
+    public int length() {
+        return left.length() + separator.length() + right.length();
+    }
+
+    /**
+     * Returns one char of the joined string.
+     *
+     * @param index char index
+     * @return the char
+     * @throws IndexOutOfBoundsException if {@code index} is invalid
+     * @implNote O(1)
+     */
+    @Override
+    public char charAt(int index) {
+        if (index < 0 || index >= length()) {
+            throw new IndexOutOfBoundsException("Out of bound!");
+        }
+        if (index < left.length()) {
+            return left.charAt(index);
+        }
+        index -= left.length();
+        if (index < separator.length()) {
+            return separator.charAt(index);
+        }
+        return right.charAt(index - separator.length());
+    }
+
+    /**
+     * Returns a range of the joined string as a String.
+     *
+     * @param start first char index
+     * @param end   index after the last char
+     * @return the chars in [start, end)
+     * @throws IndexOutOfBoundsException if the range is invalid
+     * @implNote O(end - start)
+     */
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        if (start < 0 || end > length() || start > end) {
+            throw new IndexOutOfBoundsException("Out of bound!");
+        }
+        StringBuilder sb = new StringBuilder(end - start);
+        int at = 0; // index of the first char of the current part
+        for (String part : new String[] {left, separator, right}) {
+            int from = Math.max(start, at);
+            int to = Math.min(end, at + part.length());
+            if (from < to) {
+                sb.append(part, from - at, to - at);
+            }
+            at += part.length();
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Builds the joined string.
+     *
+     * @return left + separator + right
+     * @implNote O(L)
+     */
+    @Override
+    public String toString() {
+        return new StringBuilder(length()).append(left).append(separator).append(right).toString();
+    }
+
+    /**
+     * Two views are equal if they join equal strings with an equal separator. A view
+     * is never equal to a String, like any two CharSequence types.
+     *
+     * @param o the other object
+     * @return true if o joins equal parts
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof ConcatString)) {
+            return false;
+        }
+        ConcatString c = (ConcatString) o;
+        return left.equals(c.left) && separator.equals(c.separator) && right.equals(c.right);
+    }
+
+    /**
+     * Returns a hash code consistent with {@link #equals(Object)}.
+     *
+     * @return the hash code
+     */
+    @Override
+    public int hashCode() {
+        return (left.hashCode() * 31 + separator.hashCode()) * 31 + right.hashCode();
+    }
+
+    // --------------------------------------------------------
+    // example testing code... edit this as much as you want!
+    // --------------------------------------------------------
+
+    public static void main(String[] args) {
+        ConcatString cs = new ConcatString("george", " ", "mason");
+        if (cs.length() == 12 && cs.charAt(6) == ' ' && cs.charAt(7) == 'm' && cs.toString().equals("george mason")
+                && cs.subSequence(4, 9).equals("ge ma") && new StringBuilder().append(cs).toString().equals("george mason")
+                && cs.equals(new ConcatString("george", " ", "mason"))) {
+            System.out.println("Yay 1");
+        }
+    }
+}
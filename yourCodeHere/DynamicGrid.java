@@ -152,6 +152,23 @@ public class DynamicGrid<T> {
 
     }
 
+    /**
+     * Appends a row without copying it; the grid takes ownership of newRow.
+     * <p>
+     * Used to build a grid row by row from arrays that were already sized exactly.
+     *
+     * @param newRow the row to append, must not be modified by the caller afterwards
+     * @return true if the row was appended, false if its length does not match existing rows
+     * @implNote O(1) amortized
+     */
+    boolean adoptRow(DynamicArray<T> newRow) {
+        if (storage.size() != 0 && newRow.size() != storage.get(0).size()) {
+            return false;
+        }
+        storage.add(newRow);
+        return true;
+    }
+
     /**
      * @param index  the column index where the newCol should be inserted in DynamicArray
      * @param newCol col to insert
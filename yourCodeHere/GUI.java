@@ -16,9 +16,10 @@ public class GUI extends JFrame {
 
 	/**
 	 * A table which combines two integer values into a
-	 * color with a color combiner.
+	 * color with a color combiner. Cells are kept as packed
+	 * 0xRRGGBB ints; a Color is only made when a square is drawn.
 	 */
-	private Table<Integer, Integer, Color, ColorComb> table;
+	private IntTable table;
 
 	/**
 	 * The layout manager for the main GUI window.
@@ -40,7 +41,7 @@ public class GUI extends JFrame {
 	 * and 255 in the second row and second column.
 	 */
 	public GUI() {
-		table = new Table<>(new ColorRG());
+		table = new IntTable(new ColorRG().asIntCombiner());
 		table.addRow(0, 0);
 		table.addRow(1, 255);
 		table.addCol(0, 0);
@@ -92,18 +93,20 @@ public class GUI extends JFrame {
 				possibilities,
 				"Red-Green");
 
+		ColorComb op;
 		switch (s) {
 			default:
 			case "Red-Green":
-				table.setOp(new ColorRG());
+				op = new ColorRG();
 				break;
 			case "Red-Blue":
-				table.setOp(new ColorRB());
+				op = new ColorRB();
 				break;
 			case "Green-Blue":
-				table.setOp(new ColorGB());
+				op = new ColorGB();
 				break;
 		}
+		table.setOp(op.asIntCombiner());
 	}
 
 	/**
@@ -293,7 +296,7 @@ public class GUI extends JFrame {
 				}
 				// normal cell
 				else {
-					this.add(new ColorSquare(table.getCell(currentY, currentX), SIZE));
+					this.add(new ColorSquare(new Color(table.getCell(currentY, currentX)), SIZE));
 				}
 			}
 		}
@@ -312,7 +315,19 @@ public class GUI extends JFrame {
  * 
  * @author Raven Russell
  */
-abstract class ColorComb implements Combiner<Integer, Integer, Color> {
+abstract class ColorComb implements Combiner<Integer, Integer, Color>, IntIntToRgbCombiner {
+	/**
+	 * Rejects operands that are not valid color components.
+	 * 
+	 * @param operand1 first operand
+	 * @param operand2 second operand
+	 * @throws IllegalArgumentException if either operand is outside of 0-255
+	 */
+	protected static void checkRange(int operand1, int operand2) {
+		if (((operand1 | operand2) & ~0xFF) != 0) {
+			throw new IllegalArgumentException("Color parameter outside of expected range");
+		}
+	}
 }
 
 /**
@@ -326,6 +341,19 @@ class ColorRG extends ColorComb {
 	public Color combine(Integer operand1, Integer operand2) {
 		return new Color(operand2, operand1, 0);
 	}
+
+	@Override
+	public int combineAsRgb(int operand1, int operand2) {
+		checkRange(operand1, operand2);
+		return (operand2 << 16) | (operand1 << 8);
+	}
+
+	@Override
+	public void combineRowRgb(int operand1, int[] operands2, int[] out, int n) {
+		for (int k = 0; k < n; k++) {
+			out[k] = (operands2[k] << 16) | (operand1 << 8);
+		}
+	}
 }
 
 /**
@@ -339,6 +367,19 @@ class ColorRB extends ColorComb {
 	public Color combine(Integer operand1, Integer operand2) {
 		return new Color(operand2, 0, operand1);
 	}
+
+	@Override
+	public int combineAsRgb(int operand1, int operand2) {
+		checkRange(operand1, operand2);
+		return (operand2 << 16) | operand1;
+	}
+
+	@Override
+	public void combineRowRgb(int operand1, int[] operands2, int[] out, int n) {
+		for (int k = 0; k < n; k++) {
+			out[k] = (operands2[k] << 16) | operand1;
+		}
+	}
 }
 
 /**
@@ -352,6 +393,19 @@ class ColorGB extends ColorComb {
 	public Color combine(Integer operand1, Integer operand2) {
 		return new Color(0, operand2, operand1);
 	}
+
+	@Override
+	public int combineAsRgb(int operand1, int operand2) {
+		checkRange(operand1, operand2);
+		return (operand2 << 8) | operand1;
+	}
+
+	@Override
+	public void combineRowRgb(int operand1, int[] operands2, int[] out, int n) {
+		for (int k = 0; k < n; k++) {
+			out[k] = (operands2[k] << 8) | operand1;
+		}
+	}
 }
 
 /**
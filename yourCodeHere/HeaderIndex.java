@@ -0,0 +1,220 @@
+/**
+ * A hash index from header values to their positions in a list of headers.
+ * <p>
+ * The index holds one entry per position, so repeated header values are found at
+ * every position they occupy and a lookup reports the first one. Appending or
+ * removing the last header, and replacing a header in place, update the index in
+ * O(1). Inserting or removing in the middle shifts the stored positions of the
+ * later headers right away in O(n), the same order as shifting the header list
+ * itself, so lookups always stay O(1) on average.
+ *
+ * @param <K> the type of header values
+ * @author Ismoil Aknazarov
+ */
+class HeaderIndex<K> {
+
+    private Node<K>[] buckets; // hash table of entries chained on next
+    private int size; // number of entries
+
+    /**
+     * A header value at one position.
+     *
+     * @param <K> the type of header values
+     */
+    private static class Node<K> {
+        private final K key;
+        private final int hash;
+        private int pos;
+        private Node<K> next;
+
+        /**
+         * Creates an entry.
+         *
+         * @param key  the header value
+         * @param hash the hash of key
+         * @param pos  the position of the header
+         */
+        Node(K key, int hash, int pos) {
+            this.key = key;
+            this.hash = hash;
+            this.pos = pos;
+        }
+    }
+
+    /**
+     * Builds an index over a list of headers.
+     *
+     * @param heads the headers to index
+     */
+    HeaderIndex(DynamicArray<K> heads) {
+        rebuild(heads);
+    }
+
+    /**
+     * Rebuilds the index from scratch.
+     *
+     * @param heads the headers to index
+     * @implNote O(n)
+     */
+    @SuppressWarnings("unchecked")
+    void rebuild(DynamicArray<K> heads) {
+        int tableSize = 4;
+        while (tableSize * 3 / 4 < heads.size()) {
+            tableSize *= 2;
+        }
+        buckets = (Node<K>[]) new Node<?>[tableSize];
+        size = 0;
+        for (int i = 0; i < heads.size(); i++) {
+            link(new Node<>(heads.get(i), hash(heads.get(i)), i));
+        }
+    }
+
+    /**
+     * Records a header at a position, e.g. one just appended.
+     *
+     * @param key the header value
+     * @param pos its position
+     * @implNote O(1) on average, amortized
+     */
+    @SuppressWarnings("unchecked")
+    void add(K key, int pos) {
+        if (size + 1 > buckets.length * 3 / 4) {
+            Node<K>[] old = buckets;
+            buckets = (Node<K>[]) new Node<?>[old.length * 2];
+            size = 0;
+            for (int b = 0; b < old.length; b++) {
+                Node<K> n = old[b];
+                while (n != null) {
+                    Node<K> next = n.next;
+                    link(n);
+                    n = next;
+                }
+            }
+        }
+        link(new Node<>(key, hash(key), pos));
+    }
+
+    /**
+     * Forgets the header at a position, e.g. the last one just removed or one
+     * about to be replaced.
+     *
+     * @param key the header value
+     * @param pos its position
+     * @implNote O(1) on average
+     */
+    void remove(K key, int pos) {
+        int h = hash(key);
+        int b = h & (buckets.length - 1);
+        Node<K> prev = null;
+        for (Node<K> n = buckets[b]; n != null; prev = n, n = n.next) {
+            if (n.pos == pos && n.hash == h && same(n.key, key)) {
+                if (prev == null) {
+                    buckets[b] = n.next;
+                } else {
+                    prev.next = n.next;
+                }
+                size--;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Records a header inserted at a position, moving the headers at and after it
+     * one position down.
+     *
+     * @param key the header value
+     * @param pos its position
+     * @implNote O(1) on average when appending, O(n) otherwise
+     */
+    void insert(K key, int pos) {
+        if (pos < size) {
+            shift(pos, 1);
+        }
+        add(key, pos);
+    }
+
+    /**
+     * Forgets a header removed from a position, moving the headers after it one
+     * position up.
+     *
+     * @param key the header value
+     * @param pos its position
+     * @implNote O(1) on average when it was the last header, O(n) otherwise
+     */
+    void delete(K key, int pos) {
+        remove(key, pos);
+        if (pos < size) {
+            shift(pos + 1, -1);
+        }
+    }
+
+    /**
+     * Moves every entry at or after a position by the same offset.
+     *
+     * @param from  the first position moved
+     * @param delta the offset
+     * @implNote O(n)
+     */
+    private void shift(int from, int delta) {
+        for (int b = 0; b < buckets.length; b++) {
+            for (Node<K> n = buckets[b]; n != null; n = n.next) {
+                if (n.pos >= from) {
+                    n.pos += delta;
+                }
+            }
+        }
+    }
+
+    /**
+     * Finds the first position of a header value.
+     *
+     * @param key the header value
+     * @return its lowest position, or -1 if it is not a header
+     * @implNote O(1) on average, plus one step per repeat of key
+     */
+    int indexOf(K key) {
+        int h = hash(key);
+        int found = -1;
+        for (Node<K> n = buckets[h & (buckets.length - 1)]; n != null; n = n.next) {
+            if (n.hash == h && same(n.key, key) && (found == -1 || n.pos < found)) {
+                found = n.pos;
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Chains a node into its bucket.
+     *
+     * @param n the node
+     */
+    private void link(Node<K> n) {
+        int b = n.hash & (buckets.length - 1);
+        n.next = buckets[b];
+        buckets[b] = n;
+        size++;
+    }
+
+    /**
+     * Spreads the hash code of a header value.
+     *
+     * @param key the header value, may be null
+     * @return the hash
+     */
+    private static int hash(Object key) {
+        int h = key == null ? 0 : key.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Null-safe equality.
+     *
+     * @param x first value
+     * @param y second value
+     * @return true if both are null or x equals y
+     */
+    private static boolean same(Object x, Object y) {
+        return x == null ? y == null : x.equals(y);
+    }
+}
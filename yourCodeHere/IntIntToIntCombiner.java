@@ -0,0 +1,34 @@
+/**
+ * A primitive binary operation on two ints that produces an int.
+ * <p>
+ * Implementations avoid boxing entirely. {@link IntTable} stores its cells as
+ * ints and recomputes them only through this interface; the boxed
+ * {@link Combiner} methods of classes like {@link IntegerComb} delegate here.
+ *
+ * @author Ismoil Aknazarov
+ */
+
+public interface IntIntToIntCombiner {
+
+	/**
+	 * Combine two operands and return the combination result.
+	 * @param operand1 first operand
+	 * @param operand2 second operand
+	 * @return result based on the combination of operand1 and operand2
+	 */
+	public int combineAsInt(int operand1, int operand2);
+
+	/**
+	 * Combine operand1 with each of the first n values of operands2.
+	 * @param operand1 first operand shared by every combination
+	 * @param operands2 second operands
+	 * @param out array the n results are written to
+	 * @param n number of combinations to compute
+	 */
+	public default void combineRow(int operand1, int[] operands2, int[] out, int n) {
+		for (int k = 0; k < n; k++) {
+			out[k] = combineAsInt(operand1, operands2[k]);
+		}
+	}
+
+}
@@ -0,0 +1,64 @@
+/**
+ * A primitive binary operation on two ints that produces a color packed as
+ * 0xRRGGBB, so no {@link java.awt.Color} has to be allocated per cell.
+ * <p>
+ * {@link #asIntCombiner()} lets an {@link IntTable} store the packed colors
+ * directly; a Color is then only made where one is drawn.
+ *
+ * @author Ismoil Aknazarov
+ */
+
+public interface IntIntToRgbCombiner {
+
+	/**
+	 * Combine two operands into a packed color.
+	 * @param operand1 first operand, must be in 0-255
+	 * @param operand2 second operand, must be in 0-255
+	 * @return the color as 0xRRGGBB
+	 * @throws IllegalArgumentException if an operand is outside of 0-255
+	 */
+	public int combineAsRgb(int operand1, int operand2);
+
+	/**
+	 * Combine operand1 with each of the first n values of operands2 into packed colors.
+	 * Implementations may skip the range check of combineAsRgb.
+	 * @param operand1 first operand shared by every combination
+	 * @param operands2 second operands
+	 * @param out array the n packed colors are written to
+	 * @param n number of combinations to compute
+	 */
+	public default void combineRowRgb(int operand1, int[] operands2, int[] out, int n) {
+		for (int k = 0; k < n; k++) {
+			out[k] = combineAsRgb(operand1, operands2[k]);
+		}
+	}
+
+	/**
+	 * Views this operation as an int combiner whose results are packed colors,
+	 * e.g. for the cells of an {@link IntTable}. A whole row is range checked once
+	 * and then computed with combineRowRgb.
+	 * @return the int combiner
+	 */
+	public default IntIntToIntCombiner asIntCombiner() {
+		IntIntToRgbCombiner rgb = this;
+		return new IntIntToIntCombiner() {
+			@Override
+			public int combineAsInt(int operand1, int operand2) {
+				return rgb.combineAsRgb(operand1, operand2);
+			}
+
+			@Override
+			public void combineRow(int operand1, int[] operands2, int[] out, int n) {
+				int bits = operand1;
+				for (int k = 0; k < n; k++) {
+					bits |= operands2[k];
+				}
+				if ((bits & ~0xFF) != 0) {
+					throw new IllegalArgumentException("Color parameter outside of expected range");
+				}
+				rgb.combineRowRgb(operand1, operands2, out, n);
+			}
+		};
+	}
+
+}
@@ -0,0 +1,375 @@
+/**
+ * A table of int cells computed from int row and column headers.
+ * <p>
+ * This is the primitive counterpart of
+ * {@code Table<Integer, Integer, Integer, IntegerComb>}: headers and cells are
+ * stored in int arrays and computed through {@link IntIntToIntCombiner}, so
+ * recomputing the board with {@link #setOp(IntIntToIntCombiner)} or
+ * {@link #setRow(int, int)} allocates nothing. Capacities grow by doubling and
+ * shrink by half when fewer than a third of the slots are used, like
+ * {@link DynamicArray}.
+ *
+ * @author Ismoil Aknazarov
+ */
+public class IntTable {
+
+    private static final int INITCAP = 2; // default initial capacity / minimum capacity
+
+    private int[] rowHead; // row header values, rowHead.length is the row capacity
+    private int[] colHead; // column header values, colHead.length is the column capacity
+    private int[][] board; // board[r] holds the cells of row r, each of length colHead.length
+    private int numRow;
+    private int numCol;
+    private IntIntToIntCombiner op; // op that defines a function f: f(int,int)-> int
+
+    /**
+     * Constructs an empty table with no rows or columns.
+     *
+     * @param op the combiner used to generate cell values from row and column headers
+     */
+    public IntTable(IntIntToIntCombiner op) {
+        rowHead = new int[INITCAP];
+        colHead = new int[INITCAP];
+        board = new int[INITCAP][];
+        this.op = op;
+    }
+
+    /**
+     * Returns the number of rows in the table.
+     *
+     * @return number of rows
+     * @implNote O(1)
+     */
+    public int getSizeRow() {
+        return numRow;
+    }
+
+    /**
+     * Returns the number of columns in the table.
+     *
+     * @return number of columns
+     * @implNote O(1)
+     */
+    public int getSizeCol() {
+        return numCol;
+    }
+
+    /**
+     * Retrieves the row header at the specified index.
+     *
+     * @param r row index
+     * @return the row header
+     * @throws IndexOutOfBoundsException if {@code r} is invalid
+     * @implNote O(1)
+     */
+    public int getRowHead(int r) {
+        if (r < 0 || r >= numRow) {
+            throw new IndexOutOfBoundsException("Out of bound!");
+        }
+        return rowHead[r];
+    }
+
+    /**
+     * Retrieves the column header at the specified index.
+     *
+     * @param c column index
+     * @return the column header
+     * @throws IndexOutOfBoundsException if {@code c} is invalid
+     * @implNote O(1)
+     */
+    public int getColHead(int c) {
+        if (c < 0 || c >= numCol) {
+            throw new IndexOutOfBoundsException("Out of bound!");
+        }
+        return colHead[c];
+    }
+
+    /**
+     * Retrieves the cell value at the given row and column indices.
+     *
+     * @param r row index
+     * @param c column index
+     * @return the cell value
+     * @throws IndexOutOfBoundsException if indices are invalid
+     * @implNote O(1)
+     */
+    public int getCell(int r, int c) {
+        if (r < 0 || r >= numRow || c < 0 || c >= numCol) {
+            throw new IndexOutOfBoundsException("Out of bound!");
+        }
+        return board[r][c];
+    }
+
+    /**
+     * Updates the combiner operation and recalculates all cell values in place.
+     *
+     * @param op the new combiner
+     * @implNote O(RC), no allocation
+     */
+    public void setOp(IntIntToIntCombiner op) {
+        this.op = op;
+        for (int i = 0; i < numRow; i++) {
+            op.combineRow(rowHead[i], colHead, board[i], numCol);
+        }
+    }
+
+    /**
+     * Adds a new row at the specified index.
+     *
+     * @param i the row index where the row should be inserted
+     * @param v the row header value
+     * @return true if successfully added, false otherwise
+     * @implNote O(R + C)
+     */
+    public boolean addRow(int i, int v) {
+        if (i < 0 || i > numRow) {
+            return false;
+        }
+        // compute first so a failing op leaves the table unchanged
+        int[] row = new int[colHead.length];
+        op.combineRow(v, colHead, row, numCol);
+        if (numRow == rowHead.length) {
+            resizeRows(rowHead.length * 2);
+        }
+        System.arraycopy(rowHead, i, rowHead, i + 1, numRow - i);
+        System.arraycopy(board, i, board, i + 1, numRow - i);
+        rowHead[i] = v;
+        board[i] = row;
+        numRow++;
+        return true;
+    }
+
+    /**
+     * Adds a new column at the specified index.
+     *
+     * @param i the column index where the column should be inserted
+     * @param v the column header value
+     * @return true if successfully added, false otherwise
+     * @implNote O(RC)
+     */
+    public boolean addCol(int i, int v) {
+        if (i < 0 || i > numCol) {
+            return false;
+        }
+        // compute first so a failing op leaves the table unchanged
+        int[] col = computeCol(v);
+        if (numCol == colHead.length) {
+            resizeCols(colHead.length * 2);
+        }
+        System.arraycopy(colHead, i, colHead, i + 1, numCol - i);
+        colHead[i] = v;
+        for (int k = 0; k < numRow; k++) {
+            int[] row = board[k];
+            System.arraycopy(row, i, row, i + 1, numCol - i);
+            row[i] = col[k];
+        }
+        numCol++;
+        return true;
+    }
+
+    /**
+     * Removes and returns the row header at the specified index.
+     *
+     * @param i the row index
+     * @return the removed row header
+     * @throws IndexOutOfBoundsException if index is invalid
+     * @implNote O(R)
+     */
+    public int removeRow(int i) {
+        if (i < 0 || i >= numRow) {
+            throw new IndexOutOfBoundsException("Out of bound!");
+        }
+        int removed = rowHead[i];
+        System.arraycopy(rowHead, i + 1, rowHead, i, numRow - i - 1);
+        System.arraycopy(board, i + 1, board, i, numRow - i - 1);
+        numRow--;
+        board[numRow] = null;
+        if (numRow < rowHead.length / 3) {
+            resizeRows(Math.max(INITCAP, rowHead.length / 2));
+        }
+        return removed;
+    }
+
+    /**
+     * Removes and returns the column header at the specified index.
+     *
+     * @param i the column index
+     * @return the removed column header
+     * @throws IndexOutOfBoundsException if index is invalid
+     * @implNote O(RC)
+     */
+    public int removeCol(int i) {
+        if (i < 0 || i >= numCol) {
+            throw new IndexOutOfBoundsException("Out of bound!");
+        }
+        int removed = colHead[i];
+        System.arraycopy(colHead, i + 1, colHead, i, numCol - i - 1);
+        for (int k = 0; k < numRow; k++) {
+            System.arraycopy(board[k], i + 1, board[k], i, numCol - i - 1);
+        }
+        numCol--;
+        if (numCol < colHead.length / 3) {
+            resizeCols(Math.max(INITCAP, colHead.length / 2));
+        }
+        return removed;
+    }
+
+    /**
+     * Replaces the row header at the specified index and recomputes its row in place.
+     *
+     * @param i the row index
+     * @param v the new row header value
+     * @return the old row header value
+     * @throws IndexOutOfBoundsException if index is invalid
+     * @implNote O(C), no allocation
+     */
+    public int setRow(int i, int v) {
+        if (i < 0 || i >= numRow) {
+            throw new IndexOutOfBoundsException("Out of bound!");
+        }
+        int old = rowHead[i];
+        rowHead[i] = v;
+        op.combineRow(v, colHead, board[i], numCol);
+        return old;
+    }
+
+    /**
+     * Replaces the column header at the specified index and recomputes its column in place.
+     *
+     * @param i the column index
+     * @param v the new column header value
+     * @return the old column header value
+     * @throws IndexOutOfBoundsException if index is invalid
+     * @implNote O(R)
+     */
+    public int setCol(int i, int v) {
+        if (i < 0 || i >= numCol) {
+            throw new IndexOutOfBoundsException("Out of bound!");
+        }
+        int[] col = computeCol(v);
+        int old = colHead[i];
+        colHead[i] = v;
+        for (int k = 0; k < numRow; k++) {
+            board[k][i] = col[k];
+        }
+        return old;
+    }
+
+    /**
+     * Computes the cells of a column without touching the table.
+     *
+     * @param v the column header value
+     * @return the cell of every row, in row order
+     * @implNote O(R)
+     */
+    private int[] computeCol(int v) {
+        int[] col = new int[numRow];
+        for (int k = 0; k < numRow; k++) {
+            col[k] = op.combineAsInt(rowHead[k], v);
+        }
+        return col;
+    }
+
+    /**
+     * Moves the row headers and row references to arrays of a new capacity.
+     *
+     * @param capacity the new row capacity, at least numRow
+     */
+    private void resizeRows(int capacity) {
+        int[] newHead = new int[capacity];
+        System.arraycopy(rowHead, 0, newHead, 0, numRow);
+        rowHead = newHead;
+        int[][] newBoard = new int[capacity][];
+        System.arraycopy(board, 0, newBoard, 0, numRow);
+        board = newBoard;
+    }
+
+    /**
+     * Moves the column headers and every row to arrays of a new capacity.
+     *
+     * @param capacity the new column capacity, at least numCol
+     */
+    private void resizeCols(int capacity) {
+        int[] newHead = new int[capacity];
+        System.arraycopy(colHead, 0, newHead, 0, numCol);
+        colHead = newHead;
+        for (int k = 0; k < numRow; k++) {
+            int[] newRow = new int[capacity];
+            System.arraycopy(board[k], 0, newRow, 0, numCol);
+            board[k] = newRow;
+        }
+    }
+
+    /**
+     * Returns a string representation of this table.
+     *
+     * @return a string containing the op and size
+     */
+    @Override
+    public String toString() {
+        return "IntTable with operation " + op.getClass() + ", size " + numRow + " rows, " + numCol + " cols";
+    }
+
+    // --------------------------------------------------------
+    // example testing code... edit this as much as you want!
+    // --------------------------------------------------------
+
+    public static void main(String[] args) {
+        IntTable itable = new IntTable(new IntegerAdder());
+        for (int i = 0; i < 5; i++) {
+            itable.addRow(itable.getSizeRow(), i + 1);
+            itable.addCol(0, (i + 1) * 10);
+        }
+        if (itable.getSizeRow() == 5 && itable.getSizeCol() == 5 && itable.getCell(0, 0) == 51
+                && itable.getCell(4, 0) == 55 && itable.getCell(3, 4) == 14) {
+            System.out.println("Yay 1");
+        }
+
+        itable.setOp(new IntegerTimer());
+        if (itable.getCell(0, 0) == 50 && itable.getCell(4, 0) == 250 && itable.getCell(3, 4) == 40) {
+            System.out.println("Yay 2");
+        }
+
+        itable.removeCol(0);
+        itable.removeRow(4);
+        itable.setRow(0, 7);
+        if (itable.getSizeRow() == 4 && itable.getSizeCol() == 4 && itable.getCell(0, 0) == 280
+                && itable.getCell(3, 3) == 40 && itable.getColHead(3) == 10) {
+            System.out.println("Yay 3");
+        }
+
+        // packed colors, as the GUI stores them
+        IntTable ctable = new IntTable(new ColorRG().asIntCombiner());
+        ctable.addRow(0, 0);
+        ctable.addRow(1, 255);
+        ctable.addCol(0, 0);
+        ctable.addCol(1, 200);
+        ctable.setOp(new ColorGB().asIntCombiner());
+        boolean rejected = false;
+        try {
+            ctable.addRow(2, 256);
+        } catch (IllegalArgumentException e) {
+            rejected = true;
+        }
+        int[] before = {ctable.getCell(0, 0), ctable.getCell(0, 1), ctable.getCell(1, 0), ctable.getCell(1, 1)};
+        for (int c = 0; c < 2; c++) {
+            try {
+                if (c == 0) {
+                    ctable.addCol(1, 256);
+                } else {
+                    ctable.setCol(0, 256);
+                }
+                rejected = false;
+            } catch (IllegalArgumentException e) {
+                // expected
+            }
+        }
+        boolean unchanged = ctable.getSizeCol() == 2 && ctable.getColHead(0) == 0 && ctable.getColHead(1) == 200;
+        unchanged = unchanged && ctable.getCell(0, 0) == before[0] && ctable.getCell(0, 1) == before[1]
+                && ctable.getCell(1, 0) == before[2] && ctable.getCell(1, 1) == before[3];
+        if (rejected && unchanged && ctable.getSizeRow() == 2
+                && new java.awt.Color(ctable.getCell(1, 1)).equals(new ColorGB().combine(255, 200))) {
+            System.out.println("Yay 4");
+        }
+    }
+}
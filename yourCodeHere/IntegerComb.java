@@ -1,16 +1,46 @@
 /**
  * An abstract class that implements Combiner with Integer operands and Integer result. 
+ * Subclasses only implement the primitive {@link IntIntToIntCombiner} methods; the
+ * boxed Combiner methods here are adapters kept for compatibility with Table.
  * @author CS310 GMU
  */
  
-abstract class IntegerComb implements Combiner<Integer,Integer,Integer> { }
+abstract class IntegerComb implements BatchCombiner<Integer,Integer,Integer>, IntIntToIntCombiner {
+
+	/**
+	 *  Combine two boxed integers through the primitive operation.
+	 *  @param operand1 first operand
+	 *  @param operand2 second operand
+	 *  @return result based on the combination of operand1 and operand2
+	 */
+	@Override
+	public Integer combine(Integer operand1, Integer operand2){
+		return combineAsInt(operand1, operand2);
+	}
+
+	/**
+	 *  Combine a row, unboxing operand1 once. Results go straight into out, since
+	 *  the boxed board needs one Integer per cell anyway; {@link IntTable} uses the
+	 *  allocation-free primitive row variant instead.
+	 *  @param operand1 first operand shared by every combination
+	 *  @param operands2 second operands, one per result
+	 *  @param out list the results are appended to
+	 */
+	@Override
+	public void combineRow(Integer operand1, DynamicArray<Integer> operands2, DynamicArray<Integer> out){
+		int a = operand1;
+		for (int k = 0; k < operands2.size(); k++) {
+			out.add(combineAsInt(a, operands2.get(k)));
+		}
+	}
+}
 
 /**
- * An integer combiner for addition operation. 
+ * An integer combiner for addition operation. Addition is commutative.
  * @author CS310 GMU
  */
 
-class IntegerAdder extends IntegerComb{
+class IntegerAdder extends IntegerComb implements Commutative{
 
 	/**
 	 *  Add two integers and return the total.
@@ -20,9 +50,24 @@ class IntegerAdder extends IntegerComb{
 	 */
 
 	@Override
-	public Integer combine(Integer operand1, Integer operand2){
+	public int combineAsInt(int operand1, int operand2){
 		return operand1 + operand2;
 	}
+
+	/**
+	 *  Add operand1 to each of the first n values of operands2.
+	 *  @param operand1 integer added to every value
+	 *  @param operands2 second integers to add
+	 *  @param out array the totals are written to
+	 *  @param n number of totals to compute
+	 */
+	@Override
+	public void combineRow(int operand1, int[] operands2, int[] out, int n){
+		// simple counted loop so the JIT can vectorize it
+		for (int k = 0; k < n; k++) {
+			out[k] = operand1 + operands2[k];
+		}
+	}
 	
 	/**
 	 *  A main method to test/demo.
@@ -36,11 +81,11 @@ class IntegerAdder extends IntegerComb{
 }
 
 /**
- * An integer combiner for multiplication operation. 
+ * An integer combiner for multiplication operation. Multiplication is commutative.
  * @author CS310 GMU
  */
  
-class IntegerTimer extends IntegerComb{
+class IntegerTimer extends IntegerComb implements Commutative{
 	/**
 	 *  Multiply two integers and return the product.
 	 *  @param operand1 first integer as the multiplicand
@@ -48,10 +93,25 @@ class IntegerTimer extends IntegerComb{
 	 *	@return product of the two operands
 	 */
 	@Override
-	public Integer combine(Integer operand1, Integer operand2){
+	public int combineAsInt(int operand1, int operand2){
 		return operand1 * operand2;
 	}
 
+	/**
+	 *  Multiply each of the first n values of operands2 by operand1.
+	 *  @param operand1 multiplicand shared by every product
+	 *  @param operands2 multipliers
+	 *  @param out array the products are written to
+	 *  @param n number of products to compute
+	 */
+	@Override
+	public void combineRow(int operand1, int[] operands2, int[] out, int n){
+		// simple counted loop so the JIT can vectorize it
+		for (int k = 0; k < n; k++) {
+			out[k] = operand1 * operands2[k];
+		}
+	}
+
 	/**
 	 *  A main method to test/demo.
 	 *  @param args not used
@@ -63,4 +123,4 @@ class IntegerTimer extends IntegerComb{
 	}
 	
 
-}
\ No newline at end of file
+}
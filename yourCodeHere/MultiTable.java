@@ -0,0 +1,452 @@
+/**
+ * A table that combines the same row and column headers with several ops at once,
+ * one layer of cells per op.
+ * <p>
+ * This replaces N {@link Table}s that only differ in op: the headers are stored
+ * once, structural changes happen once for every layer, and each cell is filled
+ * for all ops in one pass over the headers. The layers are stored side by side,
+ * so row r keeps the cells of column c for ops 0..N-1 next to each other at
+ * positions {@code c * N .. c * N + N - 1} of one array. Column capacity grows by
+ * doubling and shrinks by half when fewer than a third of the slots are used,
+ * like {@link DynamicArray}.
+ *
+ * @param <RowT>  the type of row header values
+ * @param <ColT>  the type of column header values
+ * @param <CellT> the type of cell values
+ * @param <OpT>   a combiner type that implements {@link Combiner} for combining row/col into a cell
+ * @author Ismoil Aknazarov
+ */
+public class MultiTable<RowT, ColT, CellT, OpT extends Combiner<RowT, ColT, CellT>> {
+
+    private static final int INITCAP = 2; // default initial capacity / minimum capacity
+
+    private DynamicArray<RowT> rowHead; // rowHead as a list of RowT values
+    private DynamicArray<ColT> colHead; // colHead as a list of ColT values
+    private DynamicArray<Object[]> board; // board.get(r)[c * layers + k] is cell (r, c) of layer k
+    private int colCap; // number of columns every row array has room for
+    private final DynamicArray<OpT> ops; // ops.get(k) is the op of layer k
+    private final int layers; // number of ops
+
+    /**
+     * Constructs an empty table with no rows or columns.
+     *
+     * @param ops one combiner per layer, at least one
+     * @throws IllegalArgumentException if no op is given
+     */
+    @SafeVarargs
+    public MultiTable(OpT... ops) {
+        if (ops.length == 0) {
+            throw new IllegalArgumentException("Need at least one op!");
+        }
+        this.layers = ops.length;
+        this.ops = new DynamicArray<>(layers);
+        for (OpT op : ops) {
+            this.ops.add(op);
+        }
+        rowHead = new DynamicArray<>();
+        colHead = new DynamicArray<>();
+        board = new DynamicArray<>();
+        colCap = INITCAP;
+    }
+
+    /**
+     * Returns the number of layers, i.e. of ops.
+     *
+     * @return number of layers
+     * @implNote O(1)
+     */
+    public int getLayers() {
+        return layers;
+    }
+
+    /**
+     * Returns the number of rows in the table.
+     *
+     * @return number of rows
+     * @implNote O(1)
+     */
+    public int getSizeRow() {
+        return rowHead.size();
+    }
+
+    /**
+     * Returns the number of columns in the table.
+     *
+     * @return number of columns
+     * @implNote O(1)
+     */
+    public int getSizeCol() {
+        return colHead.size();
+    }
+
+    /**
+     * Retrieves the row header at the specified index.
+     *
+     * @param r row index
+     * @return the row header
+     * @throws IndexOutOfBoundsException if {@code r} is invalid
+     * @implNote O(1)
+     */
+    public RowT getRowHead(int r) {
+        if (r < 0 || r >= rowHead.size()) {
+            throw new IndexOutOfBoundsException("Out of bound!");
+        }
+        return rowHead.get(r);
+    }
+
+    /**
+     * Retrieves the column header at the specified index.
+     *
+     * @param c column index
+     * @return the column header
+     * @throws IndexOutOfBoundsException if {@code c} is invalid
+     * @implNote O(1)
+     */
+    public ColT getColHead(int c) {
+        if (c < 0 || c >= colHead.size()) {
+            throw new IndexOutOfBoundsException("Out of bound!");
+        }
+        return colHead.get(c);
+    }
+
+    /**
+     * Retrieves the op of a layer.
+     *
+     * @param k layer index
+     * @return the op
+     * @throws IndexOutOfBoundsException if {@code k} is invalid
+     * @implNote O(1)
+     */
+    public OpT getOp(int k) {
+        if (k < 0 || k >= layers) {
+            throw new IndexOutOfBoundsException("Out of bound!");
+        }
+        return ops.get(k);
+    }
+
+    /**
+     * Retrieves the cell value of one layer at the given row and column indices.
+     *
+     * @param k layer index
+     * @param r row index
+     * @param c column index
+     * @return the cell value
+     * @throws IndexOutOfBoundsException if indices are invalid
+     * @implNote O(1)
+     */
+    @SuppressWarnings("unchecked")
+    public CellT getCell(int k, int r, int c) {
+        if (k < 0 || k >= layers || r < 0 || r >= rowHead.size() || c < 0 || c >= colHead.size()) {
+            throw new IndexOutOfBoundsException("Out of bound!");
+        }
+        return (CellT) board.get(r)[c * layers + k];
+    }
+
+    /**
+     * Replaces the op of one layer and recalculates that layer only.
+     *
+     * @param k  layer index
+     * @param op the new combiner
+     * @throws IndexOutOfBoundsException if {@code k} is invalid
+     * @implNote O(RC)
+     */
+    public void setOp(int k, OpT op) {
+        if (k < 0 || k >= layers) {
+            throw new IndexOutOfBoundsException("Out of bound!");
+        }
+        ops.set(k, op);
+        for (int r = 0; r < rowHead.size(); r++) {
+            Object[] row = board.get(r);
+            RowT rv = rowHead.get(r);
+            for (int c = 0; c < colHead.size(); c++) {
+                row[c * layers + k] = op.combine(rv, colHead.get(c));
+            }
+        }
+    }
+
+    /**
+     * Adds a new row at the specified index and computes it for every layer.
+     *
+     * @param i the row index where the row should be inserted
+     * @param v the row header value
+     * @return true if successfully added, false otherwise
+     * @implNote O(R + CN)
+     */
+    public boolean addRow(int i, RowT v) {
+        if (i < 0 || i > rowHead.size()) {
+            return false;
+        }
+        Object[] row = new Object[colCap * layers];
+        fillRow(row, v);
+        rowHead.add(i, v);
+        board.add(i, row);
+        return true;
+    }
+
+    /**
+     * Adds a new column at the specified index and computes it for every layer.
+     *
+     * @param i the column index where the column should be inserted
+     * @param v the column header value
+     * @return true if successfully added, false otherwise
+     * @implNote O(RCN)
+     */
+    public boolean addCol(int i, ColT v) {
+        if (i < 0 || i > colHead.size()) {
+            return false;
+        }
+        // compute first so a failing op leaves the table unchanged
+        Object[] col = computeCol(v);
+        int numCol = colHead.size();
+        if (numCol == colCap) {
+            resizeCols(colCap * 2);
+        }
+        for (int r = 0; r < rowHead.size(); r++) {
+            Object[] row = board.get(r);
+            System.arraycopy(row, i * layers, row, (i + 1) * layers, (numCol - i) * layers);
+            System.arraycopy(col, r * layers, row, i * layers, layers);
+        }
+        colHead.add(i, v);
+        return true;
+    }
+
+    /**
+     * Removes and returns the row header at the specified index, with its cells in every layer.
+     *
+     * @param i the row index
+     * @return the removed row header
+     * @throws IndexOutOfBoundsException if index is invalid
+     * @implNote O(R)
+     */
+    public RowT removeRow(int i) {
+        if (i < 0 || i >= rowHead.size()) {
+            throw new IndexOutOfBoundsException("Out of bound!");
+        }
+        board.remove(i);
+        return rowHead.remove(i);
+    }
+
+    /**
+     * Removes and returns the column header at the specified index, with its cells in every layer.
+     *
+     * @param i the column index
+     * @return the removed column header
+     * @throws IndexOutOfBoundsException if index is invalid
+     * @implNote O(RCN)
+     */
+    public ColT removeCol(int i) {
+        if (i < 0 || i >= colHead.size()) {
+            throw new IndexOutOfBoundsException("Out of bound!");
+        }
+        int numCol = colHead.size();
+        for (int r = 0; r < rowHead.size(); r++) {
+            Object[] row = board.get(r);
+            System.arraycopy(row, (i + 1) * layers, row, i * layers, (numCol - i - 1) * layers);
+            // drop references to the last column's cells
+            for (int k = (numCol - 1) * layers; k < numCol * layers; k++) {
+                row[k] = null;
+            }
+        }
+        ColT removed = colHead.remove(i);
+        if (colHead.size() < colCap / 3) {
+            resizeCols(Math.max(INITCAP, colCap / 2));
+        }
+        return removed;
+    }
+
+    /**
+     * Replaces the row header at the specified index and recomputes its row in every layer.
+     *
+     * @param i the row index
+     * @param v the new row header value
+     * @return the old row header value
+     * @throws IndexOutOfBoundsException if index is invalid
+     * @implNote O(CN)
+     */
+    public RowT setRow(int i, RowT v) {
+        if (i < 0 || i >= rowHead.size()) {
+            throw new IndexOutOfBoundsException("Out of bound!");
+        }
+        Object[] row = new Object[colCap * layers];
+        fillRow(row, v);
+        board.set(i, row);
+        return rowHead.set(i, v);
+    }
+
+    /**
+     * Replaces the column header at the specified index and recomputes its column in every layer.
+     *
+     * @param i the column index
+     * @param v the new column header value
+     * @return the old column header value
+     * @throws IndexOutOfBoundsException if index is invalid
+     * @implNote O(RN)
+     */
+    public ColT setCol(int i, ColT v) {
+        if (i < 0 || i >= colHead.size()) {
+            throw new IndexOutOfBoundsException("Out of bound!");
+        }
+        Object[] col = computeCol(v);
+        for (int r = 0; r < rowHead.size(); r++) {
+            System.arraycopy(col, r * layers, board.get(r), i * layers, layers);
+        }
+        return colHead.set(i, v);
+    }
+
+    /**
+     * Computes the cells of a column for every layer without touching the table.
+     *
+     * @param v the column header
+     * @return the cells, those of row r at positions {@code r * N .. r * N + N - 1}
+     * @implNote O(RN)
+     */
+    private Object[] computeCol(ColT v) {
+        Object[] col = new Object[rowHead.size() * layers];
+        for (int r = 0; r < rowHead.size(); r++) {
+            // row r of the column is laid out like column r of a row
+            fillCell(col, r, rowHead.get(r), v);
+        }
+        return col;
+    }
+
+    /**
+     * Computes every column of a row for every layer.
+     *
+     * @param row the row's cells
+     * @param v   the row header
+     */
+    private void fillRow(Object[] row, RowT v) {
+        for (int c = 0; c < colHead.size(); c++) {
+            fillCell(row, c, v, colHead.get(c));
+        }
+    }
+
+    /**
+     * Computes one cell for every layer, headers read once.
+     *
+     * @param row the row's cells
+     * @param c   column index
+     * @param rv  the row header
+     * @param cv  the column header
+     */
+    private void fillCell(Object[] row, int c, RowT rv, ColT cv) {
+        int base = c * layers;
+        for (int k = 0; k < layers; k++) {
+            row[base + k] = ops.get(k).combine(rv, cv);
+        }
+    }
+
+    /**
+     * Moves every row to an array of a new column capacity.
+     *
+     * @param capacity the new column capacity, at least the number of columns
+     */
+    private void resizeCols(int capacity) {
+        for (int r = 0; r < rowHead.size(); r++) {
+            Object[] newRow = new Object[capacity * layers];
+            System.arraycopy(board.get(r), 0, newRow, 0, colHead.size() * layers);
+            board.set(r, newRow);
+        }
+        colCap = capacity;
+    }
+
+    /**
+     * Returns a string representation of this table.
+     *
+     * @return a string containing the number of layers and size
+     */
+    @Override
+    public String toString() {
+        return "MultiTable with " + layers + " operations, size " + rowHead.size() + " rows, "
+                + colHead.size() + " cols";
+    }
+
+    // --------------------------------------------------------
+    // example testing code... edit this as much as you want!
+    // --------------------------------------------------------
+
+    public static void main(String[] args) {
+        MultiTable<Integer, Integer, Integer, IntegerComb> mtable =
+                new MultiTable<>(new IntegerAdder(), new IntegerTimer());
+        for (int i = 0; i < 5; i++) {
+            mtable.addRow(mtable.getSizeRow(), i + 1);
+            mtable.addCol(0, (i + 1) * 10);
+        }
+        if (mtable.getLayers() == 2 && mtable.getSizeRow() == 5 && mtable.getSizeCol() == 5
+                && mtable.getCell(0, 0, 0) == 51 && mtable.getCell(1, 0, 0) == 50
+                && mtable.getCell(0, 3, 4) == 14 && mtable.getCell(1, 3, 4) == 40) {
+            System.out.println("Yay 1");
+        }
+
+        mtable.removeCol(0);
+        mtable.removeCol(0);
+        mtable.removeCol(0);
+        mtable.removeRow(4);
+        mtable.setRow(0, 7);
+        mtable.setCol(1, 3);
+        if (mtable.getSizeRow() == 4 && mtable.getSizeCol() == 2 && mtable.getCell(0, 0, 0) == 27
+                && mtable.getCell(1, 0, 1) == 21 && mtable.getCell(1, 3, 0) == 80
+                && mtable.getColHead(1) == 3) {
+            System.out.println("Yay 2");
+        }
+
+        mtable.setOp(0, new IntegerTimer());
+        Table<Integer, Integer, Integer, IntegerComb> check = new Table<>(new IntegerTimer());
+        for (int i = 0; i < mtable.getSizeRow(); i++) {
+            check.addRow(i, mtable.getRowHead(i));
+        }
+        for (int j = 0; j < mtable.getSizeCol(); j++) {
+            check.addCol(j, mtable.getColHead(j));
+        }
+        boolean same = true;
+        for (int i = 0; i < check.getSizeRow(); i++) {
+            for (int j = 0; j < check.getSizeCol(); j++) {
+                same = same && mtable.getCell(0, i, j).equals(check.getCell(i, j))
+                        && mtable.getCell(1, i, j).equals(check.getCell(i, j));
+            }
+        }
+        if (same) {
+            System.out.println("Yay 3");
+        }
+
+        // an op that throws must leave every layer unchanged
+        Combiner<Integer, Integer, Integer> picky = (a, b) -> {
+            if (a == 3 && b < 0) {
+                throw new IllegalArgumentException("Negative header!");
+            }
+            return a - b;
+        };
+        MultiTable<Integer, Integer, Integer, Combiner<Integer, Integer, Integer>> ptable =
+                new MultiTable<>(new IntegerAdder(), picky);
+        for (int i = 0; i < 4; i++) {
+            ptable.addRow(i, i + 1);
+            ptable.addCol(i, (i + 1) * 10);
+        }
+        int failed = 0;
+        for (int t = 0; t < 3; t++) {
+            try {
+                if (t == 0) {
+                    ptable.addCol(1, -5);
+                } else if (t == 1) {
+                    ptable.setCol(2, -5);
+                } else {
+                    ptable.setRow(0, 3);
+                    ptable.setCol(0, -5);
+                }
+            } catch (IllegalArgumentException e) {
+                failed++;
+            }
+        }
+        boolean kept = ptable.getSizeCol() == 4;
+        for (int r = 0; r < 4; r++) {
+            for (int c = 0; c < 4; c++) {
+                int rv = r == 0 ? 3 : r + 1;
+                kept = kept && ptable.getColHead(c) == (c + 1) * 10
+                        && ptable.getCell(0, r, c) == rv + (c + 1) * 10 && ptable.getCell(1, r, c) == rv - (c + 1) * 10;
+            }
+        }
+        if (failed == 3 && kept) {
+            System.out.println("Yay 4");
+        }
+    }
+}
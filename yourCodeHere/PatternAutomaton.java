@@ -0,0 +1,205 @@
+import java.util.Arrays;
+
+/**
+ * An Aho-Corasick automaton over a list of patterns that counts every pattern in a
+ * text with a single pass over the text.
+ * <p>
+ * The patterns form a trie whose states are linked to the state of their longest
+ * proper suffix (failure links). While the text is scanned, each position records
+ * one visit to the state of the longest pattern prefix ending there; afterwards
+ * visits are pushed down the failure links, deepest states first, so every state
+ * ends up with the number of positions at which its string ends. That is the
+ * overlapping occurrence count of each pattern. Transitions are kept in an open
+ * addressing hash table keyed on (state, char), since patterns can use any char.
+ * <p>
+ * The automaton is immutable once built, so one instance can be shared by threads.
+ *
+ * @author Ismoil Aknazarov
+ */
+class PatternAutomaton {
+
+    private static final long EMPTY = -1L; // key of an unused transition slot
+
+    private final String[] patterns; // the patterns this automaton was built over
+    private final int[] terminal; // state spelling patterns[p], or -1 for an empty or null pattern
+    private final int[] fail; // fail[s] is the state of the longest proper suffix of s
+    private final int[] order; // states in breadth-first order, root first
+    private final int numStates;
+
+    private final long[] keys; // transition (state, char) packed as state << 16 | char
+    private final int[] targets; // state the transition at the same slot leads to
+    private final int mask; // keys.length - 1
+
+    /**
+     * Builds the automaton over a list of patterns.
+     *
+     * @param pats the patterns, null and empty ones never match
+     * @implNote O(total pattern length)
+     */
+    PatternAutomaton(DynamicArray<String> pats) {
+        int n = pats.size();
+        patterns = new String[n];
+        int total = 0;
+        for (int p = 0; p < n; p++) {
+            patterns[p] = pats.get(p);
+            total += patterns[p] == null ? 0 : patterns[p].length();
+        }
+
+        int cap = 4;
+        while (cap < 2 * (total + 1)) {
+            cap *= 2;
+        }
+        keys = new long[cap];
+        Arrays.fill(keys, EMPTY);
+        targets = new int[cap];
+        mask = cap - 1;
+
+        // trie, children of each state kept as a sibling list for the breadth-first pass
+        int[] firstChild = new int[total + 1];
+        int[] nextSibling = new int[total + 1];
+        char[] label = new char[total + 1];
+        Arrays.fill(firstChild, -1);
+        int states = 1;
+        terminal = new int[n];
+        for (int p = 0; p < n; p++) {
+            String pat = patterns[p];
+            if (pat == null || pat.isEmpty()) {
+                terminal[p] = -1;
+                continue;
+            }
+            int s = 0;
+            for (int k = 0; k < pat.length(); k++) {
+                char c = pat.charAt(k);
+                int t = go(s, c);
+                if (t < 0) {
+                    t = states++;
+                    label[t] = c;
+                    nextSibling[t] = firstChild[s];
+                    firstChild[s] = t;
+                    link(s, c, t);
+                }
+                s = t;
+            }
+            terminal[p] = s;
+        }
+        numStates = states;
+
+        // failure links in breadth-first order, so a state's suffix is always done first
+        fail = new int[states];
+        order = new int[states];
+        int tail = 1;
+        for (int head = 0; head < tail; head++) {
+            int s = order[head];
+            for (int t = firstChild[s]; t >= 0; t = nextSibling[t]) {
+                order[tail++] = t;
+                if (s == 0) {
+                    fail[t] = 0;
+                    continue;
+                }
+                char c = label[t];
+                int f = fail[s];
+                int g;
+                while ((g = go(f, c)) < 0 && f != 0) {
+                    f = fail[f];
+                }
+                fail[t] = g < 0 ? 0 : g;
+            }
+        }
+    }
+
+    /**
+     * Checks whether this automaton was built over exactly these patterns.
+     *
+     * @param pats the patterns
+     * @return true if pats holds the same patterns in the same order
+     * @implNote O(C) when the patterns are the same String objects
+     */
+    boolean isOver(DynamicArray<String> pats) {
+        if (pats.size() != patterns.length) {
+            return false;
+        }
+        for (int p = 0; p < patterns.length; p++) {
+            String a = patterns[p];
+            String b = pats.get(p);
+            if (a == null ? b != null : !a.equals(b)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Counts every pattern in a text and appends the counts to out, in pattern order.
+     *
+     * @param text the text
+     * @param out  list the counts are appended to
+     * @implNote O(N + number of states)
+     */
+    void countInto(CharSequence text, DynamicArray<Integer> out) {
+        int[] visits = new int[numStates];
+        int s = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            int t;
+            while ((t = go(s, c)) < 0 && s != 0) {
+                s = fail[s];
+            }
+            s = t < 0 ? 0 : t;
+            visits[s]++;
+        }
+        // a visit to a state is also a visit to every suffix state
+        for (int k = numStates - 1; k > 0; k--) {
+            visits[fail[order[k]]] += visits[order[k]];
+        }
+        for (int p = 0; p < terminal.length; p++) {
+            out.add(terminal[p] < 0 ? 0 : visits[terminal[p]]);
+        }
+    }
+
+    /**
+     * Follows a trie edge.
+     *
+     * @param s the state
+     * @param c the char
+     * @return the state reached, or -1 if there is no such edge
+     */
+    private int go(int s, char c) {
+        long key = ((long) s << 16) | c;
+        for (int b = slot(key); ; b = (b + 1) & mask) {
+            if (keys[b] == key) {
+                return targets[b];
+            }
+            if (keys[b] == EMPTY) {
+                return -1;
+            }
+        }
+    }
+
+    /**
+     * Adds a trie edge.
+     *
+     * @param s the state the edge leaves
+     * @param c the char
+     * @param t the state the edge leads to
+     */
+    private void link(int s, char c, int t) {
+        long key = ((long) s << 16) | c;
+        int b = slot(key);
+        while (keys[b] != EMPTY) {
+            b = (b + 1) & mask;
+        }
+        keys[b] = key;
+        targets[b] = t;
+    }
+
+    /**
+     * Picks the first slot to probe for a key.
+     *
+     * @param key the packed transition
+     * @return the slot
+     */
+    private int slot(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+}
@@ -0,0 +1,175 @@
+/**
+ * A string made of one part repeated a number of times, without storing the copies.
+ * <p>
+ * {@link #length()} and {@link #charAt(int)} are O(1), so the value can be measured
+ * or partly read in O(L) memory instead of O(NL). Appending it to a
+ * {@link StringBuilder} or {@link java.io.Writer} streams its chars without building
+ * the whole string. When the whole string is needed, {@link #toString()} builds it
+ * by doubling: the part is copied once and then the filled prefix is copied onto
+ * itself, so it takes O(log N) bulk copies instead of N appends.
+ *
+ * @author Ismoil Aknazarov
+ */
+public class RepeatedString implements CharSequence {
+
+    private final String part; // the repeated string
+    private final int times; // number of copies
+    private final int length; // part.length() * times
+
+    /**
+     * Creates the repetition of a string.
+     *
+     * @param part  the string to repeat
+     * @param times the number of copies, 0 or negative for an empty string
+     * @throws IllegalArgumentException if the result would be longer than a String can be
+     */
+    public RepeatedString(String part, int times) {
+        this.part = part;
+        this.times = Math.max(0, times);
+        long len = (long) part.length() * this.times;
+        if (len > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("String too long!");
+        }
+        this.length = (int) len;
+    }
+
+    /**
+     * Returns the repeated string.
+     *
+     * @return the part
+     */
+    public String getPart() {
+        return part;
+    }
+
+    /**
+     * Returns the number of copies.
+     *
+     * @return the number of times the part is repeated
+     */
+    public int getTimes() {
+        return times;
+    }
+
+    /**
+     * Returns the number of chars of the whole repetition.
+     *
+     * @return the length
+     * @implNote O(1)
+     */
+    @Override
+    public int length() {
+        return length;
+    }
+
+    /**
+     * Returns one char of the repetition.
+     *
+     * @param index char index
+     * @return the char
+     * @throws IndexOutOfBoundsException if {@code index} is invalid
+     * @implNote O(1)
+     */
+    @Override
+    public char charAt(int index) {
+        if (index < 0 || index >= length) {
+            throw new IndexOutOfBoundsException("Out of bound!");
+        }
+        return part.charAt(index % part.length());
+    }
+
+    /**
+     * Returns a range of the repetition as a String.
+     *
+     * @param start first char index
+     * @param end   index after the last char
+     * @return the chars in [start, end)
+     * @throws IndexOutOfBoundsException if the range is invalid
+     * @implNote O(end - start)
+     */
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        if (start < 0 || end > length || start > end) {
+            throw new IndexOutOfBoundsException("Out of bound!");
+        }
+        char[] out = new char[end - start];
+        int l = part.length();
+        int k = 0;
+        int i = start;
+        while (k < out.length) {
+            // copy up to the end of the current copy of part
+            int offset = i % l;
+            int n = Math.min(l - offset, out.length - k);
+            part.getChars(offset, offset + n, out, k);
+            k += n;
+            i += n;
+        }
+        return new String(out);
+    }
+
+    /**
+     * Builds the whole repetition by doubling.
+     *
+     * @return the string
+     * @implNote O(NL) chars copied in O(log N) bulk copies
+     */
+    @Override
+    public String toString() {
+        if (length == 0) {
+            return "";
+        }
+        char[] out = new char[length];
+        part.getChars(0, part.length(), out, 0);
+        int filled = part.length();
+        while (filled < length) {
+            int n = Math.min(filled, length - filled);
+            System.arraycopy(out, 0, out, filled, n);
+            filled += n;
+        }
+        return new String(out);
+    }
+
+    /**
+     * Two repetitions are equal if they repeat equal parts equally often. A repetition
+     * is never equal to a String, like any two CharSequence types.
+     *
+     * @param o the other object
+     * @return true if o repeats an equal part as many times
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof RepeatedString)) {
+            return false;
+        }
+        RepeatedString r = (RepeatedString) o;
+        return times == r.times && part.equals(r.part);
+    }
+
+    /**
+     * Returns a hash code consistent with {@link #equals(Object)}.
+     *
+     * @return the hash code
+     */
+    @Override
+    public int hashCode() {
+        return part.hashCode() * 31 + times;
+    }
+
+    // --------------------------------------------------------
+    // example testing code... edit this as much as you want!
+    // --------------------------------------------------------
+
+    public static void main(String[] args) {
+        RepeatedString rs = new RepeatedString("abc", 5);
+        if (rs.length() == 15 && rs.charAt(4) == 'b' && rs.toString().equals("abcabcabcabcabc")
+                && rs.subSequence(2, 8).toString().equals("cabcab") && new RepeatedString("x", -2).length() == 0
+                && new StringBuilder().append(rs).toString().equals(rs.toString())) {
+            System.out.println("Yay 1");
+        }
+
+        RepeatedString big = new RepeatedString("ab", 100000000);
+        if (big.length() == 200000000 && big.charAt(199999999) == 'b' && StringSearch.count(big.subSequence(0, 9), "bab") == 3) {
+            System.out.println("Yay 2");
+        }
+    }
+}
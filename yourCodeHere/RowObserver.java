@@ -0,0 +1,19 @@
+/**
+ * A {@link Combiner} that wants to know when a row header leaves a {@link Table},
+ * e.g. to drop state it keeps for that header.
+ * <p>
+ * {@link Table} calls {@link #rowRemoved(Object)} on its op, if the op implements
+ * this interface, whenever a row is removed or its header is replaced.
+ * @author Ismoil Aknazarov
+ * @param <A> type of the first operand, i.e. of row headers
+ */
+
+public interface RowObserver<A> {
+
+	/**
+	 * Called after a row header left the table. Other rows may still have an equal header.
+	 * @param operand1 the row header that was removed or replaced
+	 */
+	public void rowRemoved(A operand1);
+
+}
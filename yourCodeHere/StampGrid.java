@@ -0,0 +1,155 @@
+import java.util.Arrays;
+
+/**
+ * The per-cell generation stamps of a lazy {@link Table}, kept as one primitive
+ * int array per row so a stamp costs four bytes and no object.
+ * <p>
+ * Every row array has room for the same number of columns; that capacity grows
+ * by doubling and shrinks by half when fewer than a third of the slots are used,
+ * like {@link DynamicArray}.
+ *
+ * @author Ismoil Aknazarov
+ */
+class StampGrid {
+
+    private static final int INITCAP = 2; // default initial capacity / minimum capacity
+
+    private final DynamicArray<int[]> rows; // rows.get(r)[c] is the stamp of cell (r, c)
+    private int numCol;
+    private int colCap; // length of every row array
+
+    /**
+     * Creates stamps for a board of the given size, all holding the same stamp.
+     *
+     * @param numRow number of rows
+     * @param numCol number of columns
+     * @param stamp  the stamp of every cell
+     * @implNote O(RC)
+     */
+    StampGrid(int numRow, int numCol, int stamp) {
+        this.numCol = numCol;
+        colCap = Math.max(INITCAP, numCol);
+        rows = new DynamicArray<>(Math.max(1, numRow));
+        for (int r = 0; r < numRow; r++) {
+            addRow(r, stamp);
+        }
+    }
+
+    /**
+     * Returns the stamp of a cell.
+     *
+     * @param r row index, already checked
+     * @param c column index, already checked
+     * @return the stamp
+     * @implNote O(1)
+     */
+    int get(int r, int c) {
+        return rows.get(r)[c];
+    }
+
+    /**
+     * Changes the stamp of a cell.
+     *
+     * @param r     row index, already checked
+     * @param c     column index, already checked
+     * @param stamp the new stamp
+     * @implNote O(1)
+     */
+    void set(int r, int c, int stamp) {
+        rows.get(r)[c] = stamp;
+    }
+
+    /**
+     * Gives every cell the same stamp.
+     *
+     * @param stamp the stamp
+     * @implNote O(RC)
+     */
+    void fill(int stamp) {
+        for (int r = 0; r < rows.size(); r++) {
+            Arrays.fill(rows.get(r), 0, numCol, stamp);
+        }
+    }
+
+    /**
+     * Inserts a row of cells that all hold the same stamp.
+     *
+     * @param i     the row index
+     * @param stamp the stamp of the new cells
+     * @implNote O(R + C)
+     */
+    void addRow(int i, int stamp) {
+        int[] row = new int[colCap];
+        Arrays.fill(row, 0, numCol, stamp);
+        rows.add(i, row);
+    }
+
+    /**
+     * Inserts a row of stamps.
+     *
+     * @param i   the row index
+     * @param row the stamps, numCol of them, not kept
+     * @implNote O(R + C)
+     */
+    void addRow(int i, int[] row) {
+        rows.add(i, Arrays.copyOf(row, colCap));
+    }
+
+    /**
+     * Removes a row.
+     *
+     * @param i the row index, already checked
+     * @implNote O(R)
+     */
+    void removeRow(int i) {
+        rows.remove(i);
+    }
+
+    /**
+     * Inserts a column of cells that all hold the same stamp.
+     *
+     * @param i     the column index
+     * @param stamp the stamp of the new cells
+     * @implNote O(RC)
+     */
+    void addCol(int i, int stamp) {
+        if (numCol == colCap) {
+            resize(colCap * 2);
+        }
+        for (int r = 0; r < rows.size(); r++) {
+            int[] row = rows.get(r);
+            System.arraycopy(row, i, row, i + 1, numCol - i);
+            row[i] = stamp;
+        }
+        numCol++;
+    }
+
+    /**
+     * Removes a column.
+     *
+     * @param i the column index, already checked
+     * @implNote O(RC)
+     */
+    void removeCol(int i) {
+        for (int r = 0; r < rows.size(); r++) {
+            int[] row = rows.get(r);
+            System.arraycopy(row, i + 1, row, i, numCol - i - 1);
+        }
+        numCol--;
+        if (numCol < colCap / 3 && colCap > INITCAP) {
+            resize(Math.max(INITCAP, colCap / 2));
+        }
+    }
+
+    /**
+     * Moves every row to an array of a new column capacity.
+     *
+     * @param capacity the new capacity, at least numCol
+     */
+    private void resize(int capacity) {
+        colCap = capacity;
+        for (int r = 0; r < rows.size(); r++) {
+            rows.set(r, Arrays.copyOf(rows.get(r), capacity));
+        }
+    }
+}
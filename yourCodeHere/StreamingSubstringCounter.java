@@ -0,0 +1,267 @@
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.stream.IntStream;
+
+/**
+ * Counts the occurrences of one pattern in input that does not fit in a String,
+ * such as a large log file, overlapping occurrences included.
+ * <p>
+ * The input is matched as bytes, so a String pattern is encoded as UTF-8 (a UTF-8
+ * pattern can only match whole UTF-8 characters of the text). Input is scanned in
+ * fixed-size chunks with {@link StringSearch}. A match can start in one chunk and
+ * end in the next, so each chunk is searched together with the first M - 1 bytes
+ * of the next one, and only matches that start inside the chunk are counted.
+ * Input from a channel is read one chunk at a time into a single reused buffer
+ * that carries the last M - 1 bytes over to the next read. Input that is already
+ * in memory, like a memory-mapped file, can also have its chunks counted in
+ * parallel and the counts summed.
+ *
+ * @author Ismoil Aknazarov
+ */
+public class StreamingSubstringCounter {
+
+    /**
+     * Chunk size used when none is given, 1 MB.
+     */
+    public static final int DEFAULT_CHUNK = 1 << 20;
+
+    private static final long MAX_REGION = 1 << 30; // most bytes of a file mapped at once
+
+    private final ByteChars pattern;
+    private final int chunkSize;
+
+    /**
+     * A char view of bytes, one char per byte, so {@link StringSearch} can scan them.
+     */
+    private static class ByteChars implements CharSequence {
+        private final ByteBuffer bytes;
+        private final int base; // index of char 0 in bytes
+        private final int length;
+
+        /**
+         * Creates a view.
+         *
+         * @param bytes  the bytes, read with absolute gets only
+         * @param base   index of the first viewed byte
+         * @param length number of viewed bytes
+         */
+        ByteChars(ByteBuffer bytes, int base, int length) {
+            this.bytes = bytes;
+            this.base = base;
+            this.length = length;
+        }
+
+        @Override
+        public int length() {
+            return length;
+        }
+
+        @Override
+        public char charAt(int index) {
+            return (char) (bytes.get(base + index) & 0xFF);
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            return new ByteChars(bytes, base + start, end - start);
+        }
+
+        @Override
+        public String toString() {
+            byte[] copy = new byte[length];
+            for (int k = 0; k < length; k++) {
+                copy[k] = bytes.get(base + k);
+            }
+            return new String(copy, StandardCharsets.ISO_8859_1);
+        }
+    }
+
+    /**
+     * Creates a counter for a String pattern with the default chunk size.
+     *
+     * @param pattern the pattern, matched as its UTF-8 bytes
+     */
+    public StreamingSubstringCounter(String pattern) {
+        this(pattern.getBytes(StandardCharsets.UTF_8), DEFAULT_CHUNK);
+    }
+
+    /**
+     * Creates a counter for a byte pattern.
+     *
+     * @param pattern   the pattern
+     * @param chunkSize number of bytes scanned per chunk
+     * @throws IllegalArgumentException if {@code chunkSize < 1}
+     */
+    public StreamingSubstringCounter(byte[] pattern, int chunkSize) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("Chunk size cannot be less than one!");
+        }
+        this.pattern = new ByteChars(ByteBuffer.wrap(pattern.clone()), 0, pattern.length);
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Counts the pattern in everything that can be read from a channel, which is
+     * read to its end but not closed.
+     *
+     * @param in the channel
+     * @return the number of occurrences
+     * @throws IOException if reading fails
+     * @implNote O(N + M) time, O(chunk size + M) memory
+     */
+    public long count(ReadableByteChannel in) throws IOException {
+        int m = pattern.length();
+        if (m == 0) {
+            return 0;
+        }
+        ByteBuffer buf = ByteBuffer.allocate(chunkSize + m - 1);
+        long found = 0;
+        boolean eof = false;
+        while (!eof) {
+            // fill the buffer after the carried-over bytes
+            while (buf.hasRemaining()) {
+                if (in.read(buf) < 0) {
+                    eof = true;
+                    break;
+                }
+            }
+            int filled = buf.position();
+            found += StringSearch.count(new ByteChars(buf, 0, filled), pattern);
+            // the last M - 1 bytes may start a match that ends in the next read;
+            // none of them starts a match that was counted already
+            int carry = Math.min(m - 1, filled);
+            for (int k = 0; k < carry; k++) {
+                buf.put(k, buf.get(filled - carry + k));
+            }
+            buf.clear();
+            buf.position(carry);
+        }
+        return found;
+    }
+
+    /**
+     * Counts the pattern in the remaining bytes of a buffer, e.g. a
+     * {@link MappedByteBuffer}, one chunk after another. The buffer's position is not changed.
+     *
+     * @param in the bytes
+     * @return the number of occurrences
+     * @implNote O(N + M)
+     */
+    public long count(ByteBuffer in) {
+        return count(in, false);
+    }
+
+    /**
+     * Counts the pattern in the remaining bytes of a buffer, e.g. a
+     * {@link MappedByteBuffer}, optionally counting chunks in parallel on the common
+     * fork/join pool. The buffer's position is not changed.
+     *
+     * @param in       the bytes
+     * @param parallel true to count chunks in parallel
+     * @return the number of occurrences
+     * @implNote O(N + M) work
+     */
+    public long count(ByteBuffer in, boolean parallel) {
+        int from = in.position();
+        int to = in.limit();
+        int m = pattern.length();
+        if (m == 0 || to - from < m) {
+            return 0;
+        }
+        ByteChars text = new ByteChars(in, 0, to);
+        int chunks = (int) ((to - from + (long) chunkSize - 1) / chunkSize);
+        IntStream range = IntStream.range(0, chunks);
+        return (parallel ? range.parallel() : range).mapToLong(k -> {
+            // matches starting in [start, end) lie within [start, end + M - 1)
+            int start = from + k * chunkSize;
+            int end = (int) Math.min(to, (long) start + chunkSize + m - 1);
+            return StringSearch.count(text, pattern, start, end);
+        }).sum();
+    }
+
+    /**
+     * Counts the pattern in a file by memory-mapping it, a region of up to 1 GB at a time.
+     *
+     * @param file     the file
+     * @param parallel true to count the chunks of each region in parallel
+     * @return the number of occurrences
+     * @throws IOException if the file cannot be opened or mapped
+     * @implNote O(N + M) work
+     */
+    public long count(Path file, boolean parallel) throws IOException {
+        int m = pattern.length();
+        if (m == 0) {
+            return 0;
+        }
+        long found = 0;
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = ch.size();
+            for (long pos = 0; pos < size; pos += MAX_REGION) {
+                // map M - 1 extra bytes so matches that cross into the next region are seen
+                long len = Math.min(size - pos, MAX_REGION + m - 1);
+                MappedByteBuffer region = ch.map(FileChannel.MapMode.READ_ONLY, pos, len);
+                found += countStartingBefore(region, (int) Math.min(len, MAX_REGION), parallel);
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Counts the matches in a buffer that start before a given index.
+     *
+     * @param bytes    the bytes, from index 0 to the limit
+     * @param before   matches must start before this index
+     * @param parallel true to count chunks in parallel
+     * @return the number of such matches
+     */
+    private long countStartingBefore(ByteBuffer bytes, int before, boolean parallel) {
+        int m = pattern.length();
+        // a match starting before `before` ends before before + M - 1
+        ByteBuffer view = bytes.duplicate();
+        view.position(0).limit((int) Math.min(bytes.limit(), (long) before + m - 1));
+        return count(view, parallel);
+    }
+
+    // --------------------------------------------------------
+    // example testing code... edit this as much as you want!
+    // --------------------------------------------------------
+
+    public static void main(String[] args) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 20000; i++) {
+            sb.append(i % 7 == 0 ? "xyxyx" : "yx");
+        }
+        String text = sb.toString();
+        int expected = StringSearch.count(text, "xyx");
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+
+        // tiny chunks so plenty of matches cross a chunk boundary
+        StreamingSubstringCounter ssc = new StreamingSubstringCounter("xyx".getBytes(StandardCharsets.UTF_8), 7);
+        try {
+            long fromChannel = ssc.count(Channels.newChannel(new ByteArrayInputStream(bytes)));
+            if (fromChannel == expected && ssc.count(ByteBuffer.wrap(bytes)) == expected
+                    && ssc.count(ByteBuffer.wrap(bytes), true) == expected) {
+                System.out.println("Yay 1");
+            }
+
+            Path file = Files.createTempFile("stream", ".txt");
+            Files.write(file, bytes);
+            StreamingSubstringCounter utf = new StreamingSubstringCounter("yxy");
+            if (utf.count(file, true) == StringSearch.count(text, "yxy") && ssc.count(file, false) == expected) {
+                System.out.println("Yay 2");
+            }
+            Files.delete(file);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+}
@@ -22,7 +22,39 @@ public class StringAdder implements Combiner<String, String, String> {
 	public static void main(String[] args){
 		StringAdder adder = new StringAdder();
 		System.out.println(adder.combine("george", "mason"));
+
+		Table<String, String, CharSequence, LazyStringAdder> ltable = new Table<>(new LazyStringAdder());
+		Table<String, String, String, StringAdder> stable = new Table<>(adder);
+		String[] words = {"red", "yellow", "blue"};
+		for (int i = 0; i < words.length; i++) {
+			ltable.addRow(i, words[i]);
+			ltable.addCol(i, words[i]);
+			stable.addRow(i, words[i]);
+			stable.addCol(i, words[i]);
+		}
+		if (ltable.getCell(1, 2).toString().equals("yellow blue")
+				&& ltable.toString().substring(ltable.toString().indexOf("Size")).equals(
+				stable.toString().substring(stable.toString().indexOf("Size")))) {
+			System.out.println("Yay 1");
+		}
 	}
 
 	
-}
\ No newline at end of file
+}
+
+/**
+ * A String combiner for concatenation that returns a {@link ConcatString} view of
+ * its operands instead of copying them, so a table of such cells stores references
+ * to its headers rather than R*C joined strings.
+ */
+class LazyStringAdder implements Combiner<String, String, CharSequence> {
+	/**
+	 *  Join two strings with one space in between, without copying them.
+	 *  @param operand1 first string
+	 *  @param operand2 second string
+	 *  @return a view of the concatenation with one space padded in between
+	 */
+	public CharSequence combine(String operand1, String operand2) {
+		return new ConcatString(operand1, " ", operand2);
+	}
+}
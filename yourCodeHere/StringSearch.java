@@ -0,0 +1,444 @@
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Counts the occurrences of a pattern in a text, overlapping occurrences included,
+ * without allocating.
+ * <p>
+ * The scan starts as a Horspool search: it compares the text character under the
+ * pattern's last character first, shifts past any alignment that cannot match, and
+ * uses a 64-bit bloom filter of the pattern's characters to jump a whole pattern
+ * length when the next text character does not occur in the pattern. This is fast
+ * on typical text but can degrade to O(NM) on repetitive input, so the amount of
+ * verification work is tracked and, once it exceeds a linear budget, the rest of
+ * the text is searched with the Two-Way algorithm of Crochemore and Perrin, which
+ * runs in O(N + M) time and O(1) space. Both work directly on
+ * {@link CharSequence}s, so no substring is ever created.
+ * <p>
+ * For short patterns in a String, candidates are found instead with
+ * {@link String#indexOf(int, int)} on the pattern's first char, which the JVM
+ * compiles to a vectorized scan over many chars at a time, and only positions
+ * whose last char also matches are verified.
+ * <p>
+ * Very large texts can be split into segments that are counted in parallel, see
+ * {@link #countParallel(CharSequence, CharSequence)}.
+ *
+ * @author Ismoil Aknazarov
+ */
+public final class StringSearch {
+
+    private static final int BUDGET_FACTOR = 4; // verification work allowed per text char scanned
+    private static final int SEGMENT = 1 << 20; // start positions counted by one parallel task
+    private static final int SHORT_PATTERN = 16; // longest pattern searched with the first/last char filter
+
+    /**
+     * Counts the occurrences that start in a range of positions by splitting the
+     * range in halves until it is small enough to count sequentially.
+     */
+    private static class CountTask extends RecursiveTask<Integer> {
+        private static final long serialVersionUID = 1L;
+
+        private final CharSequence text;
+        private final CharSequence pattern;
+        private final int from; // first start position counted
+        private final int to; // positions from here on are not counted
+
+        /**
+         * Creates a task.
+         *
+         * @param text    the text
+         * @param pattern the pattern, not empty
+         * @param from    first start position counted
+         * @param to      end of the start positions counted, at most N - M + 1
+         */
+        CountTask(CharSequence text, CharSequence pattern, int from, int to) {
+            this.text = text;
+            this.pattern = pattern;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Integer compute() {
+            if (to - from <= SEGMENT) {
+                // an occurrence starting before `to` ends before to + M - 1
+                return count(text, pattern, from, to + pattern.length() - 1);
+            }
+            int mid = (from + to) >>> 1;
+            CountTask left = new CountTask(text, pattern, from, mid);
+            left.fork();
+            int right = new CountTask(text, pattern, mid, to).compute();
+            return right + left.join();
+        }
+    }
+
+    private StringSearch() {
+    }
+
+    /**
+     * Counts the occurrences of pattern in text, overlapping ones included.
+     *
+     * @param text    the text to search
+     * @param pattern the pattern to look for
+     * @return the number of positions where pattern occurs, 0 if pattern is empty
+     * @implNote O(N + M), no allocation
+     */
+    public static int count(CharSequence text, CharSequence pattern) {
+        return count(text, pattern, 0, text.length());
+    }
+
+    /**
+     * Counts the occurrences of pattern that lie entirely within text[from, to),
+     * overlapping ones included.
+     *
+     * @param text    the text to search
+     * @param pattern the pattern to look for
+     * @param from    the first text index an occurrence may start at
+     * @param to      the text index every occurrence must end before
+     * @return the number of occurrences, 0 if pattern is empty
+     * @throws IndexOutOfBoundsException if from or to are outside text or from &gt; to
+     * @implNote O((to - from) + M), no allocation
+     */
+    public static int count(CharSequence text, CharSequence pattern, int from, int to) {
+        if (from < 0 || to > text.length() || from > to) {
+            throw new IndexOutOfBoundsException("Out of bound!");
+        }
+        int m = pattern.length();
+        if (m == 0 || to - from < m) {
+            return 0;
+        }
+        if (m == 1) {
+            char c = pattern.charAt(0);
+            int found = 0;
+            for (int i = from; i < to; i++) {
+                if (text.charAt(i) == c) {
+                    found++;
+                }
+            }
+            return found;
+        }
+        if (m <= SHORT_PATTERN && to == text.length() && text instanceof String) {
+            return firstLast((String) text, pattern, from, to);
+        }
+        return horspool(text, pattern, from, to);
+    }
+
+    /**
+     * Counts the occurrences of pattern in text, overlapping ones included, on the
+     * common fork/join pool.
+     * <p>
+     * The start positions are split into segments of about a million. Each segment is
+     * searched together with the M - 1 chars after it but only counts occurrences
+     * that start inside it, so every occurrence is counted exactly once and the result
+     * equals {@link #count(CharSequence, CharSequence)}. text must not change during
+     * the call and must be safe to read from several threads.
+     *
+     * @param text    the text to search
+     * @param pattern the pattern to look for
+     * @return the number of positions where pattern occurs, 0 if pattern is empty
+     * @implNote O(N + M * (N / segment)) work
+     */
+    public static int countParallel(CharSequence text, CharSequence pattern) {
+        int m = pattern.length();
+        if (m == 0 || text.length() < m) {
+            return 0;
+        }
+        return ForkJoinPool.commonPool().invoke(new CountTask(text, pattern, 0, text.length() - m + 1));
+    }
+
+    /**
+     * Horspool search with a bloom filter skip, handing over to Two-Way once it has
+     * spent too long verifying candidates.
+     *
+     * @param text    the text
+     * @param pattern the pattern, at least two chars long
+     * @param from    first start index
+     * @param to      end of the searched range
+     * @return the number of occurrences
+     */
+    private static int horspool(CharSequence text, CharSequence pattern, int from, int to) {
+        int m = pattern.length();
+        int mlast = m - 1;
+        char last = pattern.charAt(mlast);
+        // distance from the previous copy of the last char to the end, minus one
+        int skip = mlast - 1;
+        long mask = 0;
+        for (int k = 0; k < mlast; k++) {
+            char c = pattern.charAt(k);
+            mask |= 1L << (c & 63);
+            if (c == last) {
+                skip = mlast - k - 1;
+            }
+        }
+        mask |= 1L << (last & 63);
+
+        int found = 0;
+        long work = 0;
+        int w = to - m;
+        for (int i = from; i <= w; i++) {
+            if (text.charAt(i + mlast) == last) {
+                int k = 0;
+                while (k < mlast && text.charAt(i + k) == pattern.charAt(k)) {
+                    k++;
+                }
+                if (k == mlast) {
+                    found++;
+                }
+                work += k + 1;
+                if (work > (long) BUDGET_FACTOR * (i - from + m)) {
+                    // too many partial matches: finish in guaranteed linear time
+                    return found + twoWay(text, pattern, i + skip + 1, to);
+                }
+                if (i + m < to && (mask & (1L << (text.charAt(i + m) & 63))) == 0) {
+                    i += m;
+                } else {
+                    i += skip;
+                }
+            } else if (i + m < to && (mask & (1L << (text.charAt(i + m) & 63))) == 0) {
+                i += m;
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Finds candidates with a vectorized scan for the first char, filters them on the
+     * last char and verifies the rest, handing over to Two-Way once verification
+     * work exceeds the budget.
+     *
+     * @param text    the text
+     * @param pattern the pattern, at least two chars long
+     * @param from    first start index
+     * @param to      end of the searched range, the end of text
+     * @return the number of occurrences
+     */
+    private static int firstLast(String text, CharSequence pattern, int from, int to) {
+        int m = pattern.length();
+        int mlast = m - 1;
+        char first = pattern.charAt(0);
+        char last = pattern.charAt(mlast);
+        int found = 0;
+        long work = 0;
+        int w = to - m;
+        for (int i = text.indexOf(first, from); i >= 0 && i <= w; i = text.indexOf(first, i + 1)) {
+            if (text.charAt(i + mlast) == last) {
+                int k = 1;
+                while (k < mlast && text.charAt(i + k) == pattern.charAt(k)) {
+                    k++;
+                }
+                if (k >= mlast) {
+                    found++;
+                }
+                work += k;
+                if (work > (long) BUDGET_FACTOR * (i - from + m)) {
+                    return found + twoWay(text, pattern, i + 1, to);
+                }
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Two-Way search (Crochemore and Perrin) over text[from, to).
+     *
+     * @param text    the text
+     * @param pattern the pattern, not empty
+     * @param from    first start index
+     * @param to      end of the searched range
+     * @return the number of occurrences
+     */
+    private static int twoWay(CharSequence text, CharSequence pattern, int from, int to) {
+        int m = pattern.length();
+        if (to - from < m) {
+            return 0;
+        }
+        // critical factorization pattern = u v with |u| = ell + 1
+        long s1 = maxSuffix(pattern, false);
+        long s2 = maxSuffix(pattern, true);
+        int ell;
+        int per;
+        if ((int) (s1 >> 32) > (int) (s2 >> 32)) {
+            ell = (int) (s1 >> 32);
+            per = (int) s1;
+        } else {
+            ell = (int) (s2 >> 32);
+            per = (int) s2;
+        }
+
+        int found = 0;
+        int last = to - m;
+        if (ell + 1 + per <= m && regionMatches(pattern, 0, per, ell + 1)) {
+            // pattern is periodic with period per: remember the matched prefix after a full match
+            int memory = -1;
+            int j = from;
+            while (j <= last) {
+                int i = Math.max(ell, memory) + 1;
+                while (i < m && pattern.charAt(i) == text.charAt(i + j)) {
+                    i++;
+                }
+                if (i >= m) {
+                    i = ell;
+                    while (i > memory && pattern.charAt(i) == text.charAt(i + j)) {
+                        i--;
+                    }
+                    if (i <= memory) {
+                        found++;
+                    }
+                    j += per;
+                    memory = m - per - 1;
+                } else {
+                    j += i - ell;
+                    memory = -1;
+                }
+            }
+        } else {
+            // occurrences are more than this far apart
+            int shift = Math.max(ell + 1, m - ell - 1) + 1;
+            int j = from;
+            while (j <= last) {
+                int i = ell + 1;
+                while (i < m && pattern.charAt(i) == text.charAt(i + j)) {
+                    i++;
+                }
+                if (i >= m) {
+                    i = ell;
+                    while (i >= 0 && pattern.charAt(i) == text.charAt(i + j)) {
+                        i--;
+                    }
+                    if (i < 0) {
+                        found++;
+                    }
+                    j += shift;
+                } else {
+                    j += i - ell;
+                }
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Finds the maximal suffix of pattern for one of the two orderings of chars.
+     *
+     * @param pattern  the pattern
+     * @param reversed true to use the reversed char ordering
+     * @return the start of the maximal suffix minus one in the high 32 bits, and its
+     *         period in the low 32 bits
+     */
+    private static long maxSuffix(CharSequence pattern, boolean reversed) {
+        int m = pattern.length();
+        int ms = -1;
+        int j = 0;
+        int k = 1;
+        int p = 1;
+        while (j + k < m) {
+            char a = pattern.charAt(j + k);
+            char b = pattern.charAt(ms + k);
+            if (reversed ? a > b : a < b) {
+                j += k;
+                k = 1;
+                p = j - ms;
+            } else if (a == b) {
+                if (k != p) {
+                    k++;
+                } else {
+                    j += p;
+                    k = 1;
+                }
+            } else {
+                ms = j;
+                j = ms + 1;
+                k = 1;
+                p = 1;
+            }
+        }
+        return ((long) ms << 32) | (p & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Compares two regions of a char sequence.
+     *
+     * @param s   the sequence
+     * @param a   start of the first region
+     * @param b   start of the second region
+     * @param len region length
+     * @return true if both regions hold the same chars
+     */
+    private static boolean regionMatches(CharSequence s, int a, int b, int len) {
+        for (int k = 0; k < len; k++) {
+            if (s.charAt(a + k) != s.charAt(b + k)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // --------------------------------------------------------
+    // example testing code... edit this as much as you want!
+    // --------------------------------------------------------
+
+    public static void main(String[] args) {
+        if (args.length > 0 && args[0].equals("bench")) {
+            bench();
+            return;
+        }
+        if (count("23232", "232") == 2 && count("aaaaa", "aa") == 4 && count("abab", "ab") == 2
+                && count("aa", "aab") == 0 && count("abc", "") == 0
+                && count("helloabchelloddefzdfjhello", "hello") == 3) {
+            System.out.println("Yay 1");
+        }
+
+        // repetitive text forces the switch to Two-Way
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 5000; i++) {
+            sb.append("aaaaaaaab");
+        }
+        if (count(sb, "aaaaaaab") == 5000 && count(sb, "aab") == 5000 && count(sb, "baaaaaaaab") == 4999
+                && count(sb, "aaaaaaaaa") == 0 && count(sb, "ab", 9, 27) == 2
+                && count(sb.toString(), "aaaaaaab") == 5000 && count(sb.toString(), "aaaaaaaaa") == 0) {
+            System.out.println("Yay 2");
+        }
+
+        StringBuilder huge = new StringBuilder();
+        while (huge.length() < 3 * SEGMENT) {
+            huge.append("232323");
+        }
+        huge.append('2');
+        if (countParallel(huge, "232") == huge.length() / 2 && countParallel(huge, "23232") == count(huge, "23232")) {
+            System.out.println("Yay 3");
+        }
+    }
+
+    /**
+     * Compares the first/last char filter with the Horspool scan on English-like
+     * text, run with {@code java StringSearch bench}.
+     */
+    private static void bench() {
+        String[] words = {"the", "table", "row", "column", "header", "cell", "combine", "of", "and", "a"};
+        StringBuilder sb = new StringBuilder();
+        Random rnd = new Random(42);
+        while (sb.length() < 1 << 24) {
+            sb.append(words[rnd.nextInt(words.length)]).append(' ');
+        }
+        String text = sb.toString();
+        String[] patterns = {"ow", "cell", "header c", "combine the table"};
+        for (String p : patterns) {
+            long best1 = Long.MAX_VALUE;
+            long best2 = Long.MAX_VALUE;
+            int c1 = 0;
+            int c2 = 0;
+            for (int run = 0; run < 10; run++) {
+                long t0 = System.nanoTime();
+                c1 = horspool(text, p, 0, text.length());
+                long t1 = System.nanoTime();
+                c2 = firstLast(text, p, 0, text.length());
+                long t2 = System.nanoTime();
+                best1 = Math.min(best1, t1 - t0);
+                best2 = Math.min(best2, t2 - t1);
+            }
+            System.out.printf("%-20s horspool %6.2f ms   first/last %6.2f ms   %s%n", "\"" + p + "\"",
+                    best1 / 1e6, best2 / 1e6, c1 == c2 ? "same count" : "COUNTS DIFFER");
+        }
+    }
+}
@@ -8,21 +8,14 @@ public class StringTimer implements Combiner<String, Integer, String> {
             return "";
         }
 
-        StringBuilder combiner = new StringBuilder();
-
-        for (int i = 0; i < operand2; i++) {
-            combiner.append(operand1);
-        }
-
-        String result = combiner.toString();
         // return a string as a repetition of the original string operand1
         // the number of repeats is specified by integer operand2
         // e.g. combine("hat",3) returns "hathathat"
         // return empty string if operand2 is 0 or negative
 
-        // O(NL) where N is the value of operand2 and L is the length of operand1
-        // Hint: remember the big-O of copying a string...
-        return result;
+        // O(NL) where N is the value of operand2 and L is the length of operand1,
+        // built by doubling in O(log N) bulk copies
+        return new RepeatedString(operand1, operand2).toString();
     }
 
     // --------------------------------------------------------
@@ -36,5 +29,31 @@ public class StringTimer implements Combiner<String, Integer, String> {
             System.out.println("Yay 1");
         }
 
+        LazyStringTimer lst = new LazyStringTimer();
+        Table<String, Integer, CharSequence, LazyStringTimer> ltable = new Table<>(lst);
+        ltable.addRow(0, "ab");
+        ltable.addRow(1, "xyz");
+        ltable.addCol(0, 3);
+        ltable.addCol(1, 50000000);
+        if (ltable.getCell(1, 1).length() == 150000000 && ltable.getCell(0, 0).toString().equals("ababab")
+                && ltable.getCell(1, 1).charAt(149999999) == 'z') {
+            System.out.println("Yay 2");
+        }
+
     }
-}
\ No newline at end of file
+}
+/**
+ * A String combiner for repetition that returns a lazy {@link RepeatedString}, so a
+ * cell takes O(L) memory instead of O(NL) until its whole text is needed.
+ */
+class LazyStringTimer implements Combiner<String, Integer, CharSequence> {
+	/**
+	 *  Repeat operand1 operand2 times without copying it.
+	 *  @param operand1 the string to repeat
+	 *  @param operand2 the number of copies, 0 or negative for an empty string
+	 *  @return the repetition
+	 */
+	public CharSequence combine(String operand1, Integer operand2) {
+		return new RepeatedString(operand1, operand2);
+	}
+}
@@ -1,6 +1,100 @@
 // TO DO: add your implementation and JavaDoc
 
-public class SubstringCounter implements Combiner<String, String, Integer> {
+public class SubstringCounter implements BatchCombiner<String, String, Integer>, RowObserver<String> {
+
+    private static final int MIN_INDEXED_LENGTH = 1 << 10; // shorter texts are always scanned
+    // key of built indexes in the cache, never called
+    private static final Combiner<String, Integer, SuffixIndex> BUILD = (text, unused) -> null;
+
+    private volatile int parallelThreshold = 1 << 22; // texts at least this long are searched in parallel
+    private volatile PatternAutomaton automaton; // over the last patterns of a whole row, or null
+    private CombineCache<String, Integer, SuffixIndex> indexes; // suffix arrays of texts, null if disabled
+
+    /**
+     * Sets how long a text has to be before it is searched on several cores. The
+     * result is the same either way; below a few million chars the cost of
+     * splitting the work usually outweighs the gain.
+     * @param minLength the min text length for a parallel search
+     */
+    public void setParallelThreshold(int minLength) {
+        parallelThreshold = minLength;
+    }
+
+    /**
+     * Keeps a suffix array of each long text that is searched, for up to maxTexts
+     * texts, least recently used first out. Every later pattern is then counted in
+     * O(M log N) instead of O(N). This pays off when the same texts are searched for
+     * many patterns one at a time, like the rows of a table that keeps getting new
+     * columns. The index of a text is dropped when its row leaves a {@link Table}.
+     * @param maxTexts the max number of texts indexed at once
+     * @throws IllegalArgumentException if {@code maxTexts < 1}
+     */
+    public synchronized void enableTextIndex(int maxTexts) {
+        indexes = new CombineCache<>(maxTexts);
+    }
+
+    /**
+     * Drops every text index and goes back to scanning texts.
+     */
+    public synchronized void disableTextIndex() {
+        indexes = null;
+    }
+
+    /**
+     * Drops the index of a text that is no longer a row header.
+     * @param operand1 the text
+     */
+    @Override
+    public synchronized void rowRemoved(String operand1) {
+        if (indexes != null) {
+            indexes.remove(BUILD, operand1, 0);
+        }
+    }
+
+    /**
+     * Finds or builds the index of a text.
+     * @param text the text
+     * @return its index, or null if text indexes are disabled or text is short
+     */
+    private SuffixIndex indexOf(String text) {
+        if (text.length() < MIN_INDEXED_LENGTH) {
+            return null;
+        }
+        synchronized (this) {
+            if (indexes == null) {
+                return null;
+            }
+            SuffixIndex idx = indexes.get(BUILD, text, 0);
+            if (idx == null) {
+                idx = new SuffixIndex(text);
+                indexes.put(BUILD, text, 0, idx);
+            }
+            return idx;
+        }
+    }
+
+    /**
+     * Counts every pattern of a row in one pass over the text with an Aho-Corasick
+     * automaton. The automaton is kept and reused for later rows until the patterns
+     * change, e.g. after a column of the table is added, removed or replaced.
+     * @param operand1 the text
+     * @param operands2 the patterns, one per result
+     * @param out list the counts are appended to
+     */
+    @Override
+    public void combineRow(String operand1, DynamicArray<String> operands2, DynamicArray<Integer> out) {
+        if (operands2.size() < 2) {
+            // a single pattern is searched faster on its own
+            BatchCombiner.super.combineRow(operand1, operands2, out);
+            return;
+        }
+        PatternAutomaton a = automaton;
+        if (a == null || !a.isOver(operands2)) {
+            a = new PatternAutomaton(operands2);
+            automaton = a;
+        }
+        a.countInto(operand1, out);
+    }
 
     public Integer combine(String operand1, String operand2) {
 
@@ -11,28 +105,19 @@ public class SubstringCounter implements Combiner<String, String, Integer> {
             return 0;
         }
 
-        int counter = 0;
-
-        for (int i = 0; i <= operand1.length() - operand2.length(); i++) {
-
-            if (operand1.substring(i, i + operand2.length()).equals(operand2)) {
-                counter++;
-            }
-
-
-        }
-        Integer result = counter;
-        // count how many times operand2 occurs in operand1 as a substring
-        // return the count
+        // count how many times operand2 occurs in operand1 as a substring,
+        // overlapping occurrences included, without creating substrings
         //
-        // O(NM) where N is the length of operand1 and M is the length of operand2
-        //
-        // Hint:
-        //	-- You might want to look through Java's String class methods for some
-        //	 useful tools: https://docs.oracle.com/javase/8/docs/api/java/lang/String.html
-        //  -- You may for this assignment (naively) assume that these String methods are
-        //	 all O(s) where s is the length of the string the method is called upon
-        return result;
+        // O(N + M) where N is the length of operand1 and M is the length of operand2,
+        // O(M log N) if operand1 is indexed
+        SuffixIndex idx = indexOf(operand1);
+        if (idx != null) {
+            return idx.count(operand2);
+        }
+        if (operand1.length() >= parallelThreshold) {
+            return StringSearch.countParallel(operand1, operand2);
+        }
+        return StringSearch.count(operand1, operand2);
     }
 
     // --------------------------------------------------------
@@ -47,5 +132,55 @@ public class SubstringCounter implements Combiner<String, String, Integer> {
             System.out.println("Yay 1");
         }
 
+        StringBuilder big = new StringBuilder();
+        for (int i = 0; i < 100000; i++) {
+            big.append(i % 7 == 0 ? "xyxyx" : "yx");
+        }
+        if (sc.combine(big.toString(), "xyx") == 114286) {
+            System.out.println("Yay 2");
+        }
+
+        Table<String, String, Integer, SubstringCounter> ctable = new Table<>(sc);
+        String[] pats = {"ab", "a", "", "bab", "abab", "ab", "zz"};
+        for (int j = 0; j < pats.length; j++) {
+            ctable.addCol(j, pats[j]);
+        }
+        ctable.addRow(0, "abababab");
+        ctable.addRow(1, "babbab");
+        ctable.removeCol(1);
+        ctable.addRow(2, "aabab");
+        boolean same = true;
+        for (int i = 0; i < ctable.getSizeRow(); i++) {
+            for (int j = 0; j < ctable.getSizeCol(); j++) {
+                same = same && ctable.getCell(i, j).equals(sc.combine(ctable.getRowHead(i), ctable.getColHead(j)));
+            }
+        }
+        if (same && ctable.getCell(0, 3) == 3 && ctable.getCell(2, 2) == 1) {
+            System.out.println("Yay 3");
+        }
+
+        SubstringCounter isc = new SubstringCounter();
+        isc.enableTextIndex(4);
+        Table<String, String, Integer, SubstringCounter> itable = new Table<>(isc);
+        itable.addRow(0, big.toString());
+        itable.addRow(1, "xyx");
+        itable.addCol(0, "xyx");
+        itable.addCol(1, "yxyx");
+        itable.addCol(2, "xyxyx");
+        boolean indexed = isc.indexes.size() == 1;
+        itable.removeRow(0);
+        if (indexed && isc.indexes.size() == 0 && itable.getCell(0, 0) == 1
+                && isc.combine(big.toString(), "xyx") == 114286
+                && isc.combine(big.toString(), "yxyx").equals(sc.combine(big.toString(), "yxyx"))) {
+            System.out.println("Yay 4");
+        }
+
+        SubstringCounter psc = new SubstringCounter();
+        psc.setParallelThreshold(1);
+        if (psc.combine("23232", "232") == 2 && psc.combine(big.toString(), "xyx") == 114286
+                && psc.combine("abab", "ab") == 2) {
+            System.out.println("Yay 5");
+        }
+
     }
 }
\ No newline at end of file
@@ -0,0 +1,173 @@
+/**
+ * A suffix array over one text, for counting many different patterns in the same
+ * text without scanning the text again for each of them.
+ * <p>
+ * Every occurrence of a pattern is the start of a suffix that begins with the
+ * pattern, and those suffixes are adjacent in sorted order, so a count is the
+ * distance between two binary searches: O(M log N) char comparisons, fewer in
+ * practice because each probe skips the prefix already known to match on both
+ * sides. Overlapping occurrences are counted like {@link StringSearch} does.
+ * Building the array costs O(N log N) by prefix doubling with counting sorts,
+ * and it takes one int per text char.
+ *
+ * @author Ismoil Aknazarov
+ */
+public class SuffixIndex {
+
+    private final CharSequence text;
+    private final int[] sa; // start positions of the suffixes of text in sorted order
+
+    /**
+     * Builds the index over a text.
+     *
+     * @param text the text, which must not change while the index is in use
+     * @implNote O(N log N)
+     */
+    public SuffixIndex(CharSequence text) {
+        this.text = text;
+        int n = text.length();
+        sa = new int[n];
+        if (n == 0) {
+            return;
+        }
+        int[] rank = new int[n];
+        int[] tmp = new int[n];
+        int[] cnt = new int[Math.max(Character.MAX_VALUE + 1, n)];
+
+        // sort by first char
+        for (int i = 0; i < n; i++) {
+            rank[i] = text.charAt(i);
+            cnt[rank[i]]++;
+        }
+        for (int c = 1; c <= Character.MAX_VALUE; c++) {
+            cnt[c] += cnt[c - 1];
+        }
+        for (int i = n - 1; i >= 0; i--) {
+            sa[--cnt[rank[i]]] = i;
+        }
+        int classes = Character.MAX_VALUE + 1;
+
+        // sort by the first 2k chars, knowing the order by the first k
+        for (int k = 1; k < n; k <<= 1) {
+            // order by second half: suffixes shorter than k + 1 first, then by sa
+            int p = 0;
+            for (int i = n - k; i < n; i++) {
+                tmp[p++] = i;
+            }
+            for (int j = 0; j < n; j++) {
+                if (sa[j] >= k) {
+                    tmp[p++] = sa[j] - k;
+                }
+            }
+            // stable counting sort by first half
+            for (int c = 0; c < classes; c++) {
+                cnt[c] = 0;
+            }
+            for (int i = 0; i < n; i++) {
+                cnt[rank[i]]++;
+            }
+            for (int c = 1; c < classes; c++) {
+                cnt[c] += cnt[c - 1];
+            }
+            for (int j = n - 1; j >= 0; j--) {
+                sa[--cnt[rank[tmp[j]]]] = tmp[j];
+            }
+            // new ranks
+            tmp[sa[0]] = 0;
+            classes = 1;
+            for (int j = 1; j < n; j++) {
+                int a = sa[j - 1];
+                int b = sa[j];
+                boolean same = rank[a] == rank[b]
+                        && (a + k < n ? rank[a + k] : -1) == (b + k < n ? rank[b + k] : -1);
+                tmp[b] = same ? classes - 1 : classes++;
+            }
+            int[] t = rank;
+            rank = tmp;
+            tmp = t;
+            if (classes == n) {
+                break;
+            }
+        }
+    }
+
+    /**
+     * Returns the length of the indexed text.
+     *
+     * @return the text length
+     * @implNote O(1)
+     */
+    public int length() {
+        return text.length();
+    }
+
+    /**
+     * Counts the occurrences of pattern in the text, overlapping ones included.
+     *
+     * @param pattern the pattern to look for
+     * @return the number of occurrences, 0 if pattern is empty
+     * @implNote O(M log N)
+     */
+    public int count(CharSequence pattern) {
+        int m = pattern.length();
+        if (m == 0 || m > sa.length) {
+            return 0;
+        }
+        return bound(pattern, true) - bound(pattern, false);
+    }
+
+    /**
+     * Binary search over the sorted suffixes.
+     *
+     * @param pattern the pattern
+     * @param upper   false for the first suffix whose first M chars are not less
+     *                than pattern, true for the first one whose first M chars are greater
+     * @return the position of that suffix in sa, or N if there is none
+     */
+    private int bound(CharSequence pattern, boolean upper) {
+        int m = pattern.length();
+        int n = sa.length;
+        int lo = 0;
+        int hi = n;
+        int lcpLo = 0; // chars pattern shares with the suffix before lo
+        int lcpHi = 0; // chars pattern shares with the suffix at hi
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            int s = sa[mid];
+            // every suffix between the two bounds shares at least this much with pattern
+            int k = Math.min(lcpLo, lcpHi);
+            while (k < m && s + k < n && text.charAt(s + k) == pattern.charAt(k)) {
+                k++;
+            }
+            int cmp;
+            if (k == m) {
+                cmp = 0;
+            } else if (s + k == n || text.charAt(s + k) < pattern.charAt(k)) {
+                cmp = -1;
+            } else {
+                cmp = 1;
+            }
+            if (upper ? cmp <= 0 : cmp < 0) {
+                lo = mid + 1;
+                lcpLo = k;
+            } else {
+                hi = mid;
+                lcpHi = k;
+            }
+        }
+        return lo;
+    }
+
+    // --------------------------------------------------------
+    // example testing code... edit this as much as you want!
+    // --------------------------------------------------------
+
+    public static void main(String[] args) {
+        SuffixIndex idx = new SuffixIndex("helloabchelloddefzdfjhello");
+        if (idx.count("hello") == 3 && idx.count("l") == 6 && idx.count("lo") == 3 && idx.count("zz") == 0
+                && idx.count("") == 0 && new SuffixIndex("23232").count("232") == 2
+                && new SuffixIndex("aaaaa").count("aa") == 4 && new SuffixIndex("").count("a") == 0) {
+            System.out.println("Yay 1");
+        }
+    }
+}
@@ -0,0 +1,197 @@
+/**
+ * A table whose row headers and column headers are one and the same sequence,
+ * filled by a {@link Commutative} op.
+ * <p>
+ * Since {@code cell(r, c) == op(head(r), head(c)) == op(head(c), head(r)) == cell(c, r)},
+ * only the upper triangle (c &gt;= r) is computed and stored: row r of the storage
+ * holds the cells (r, r), (r, r + 1), ..., (r, N - 1). That is N(N+1)/2 cells
+ * instead of N*N, and lookups below the diagonal are mirrored.
+ *
+ * @param <T>     the type of header values, used for both rows and columns
+ * @param <CellT> the type of cell values
+ * @param <OpT>   a commutative combiner that combines two headers into a cell
+ * @author Ismoil Aknazarov
+ */
+public class SymmetricTable<T, CellT, OpT extends Combiner<T, T, CellT> & Commutative> {
+
+    private DynamicArray<T> head; // headers of both the rows and the columns
+    private DynamicArray<DynamicArray<CellT>> upper; // upper.get(r).get(c - r) is cell (r, c) for c >= r
+    private OpT op; // op that defines a function f: f(T,T)-> CellT
+
+    /**
+     * Constructs an empty table.
+     *
+     * @param op the commutative combiner used to generate cell values from headers
+     */
+    public SymmetricTable(OpT op) {
+        head = new DynamicArray<>();
+        upper = new DynamicArray<>();
+        this.op = op;
+    }
+
+    /**
+     * Returns the number of rows, which is also the number of columns.
+     *
+     * @return number of headers
+     * @implNote O(1)
+     */
+    public int getSize() {
+        return head.size();
+    }
+
+    /**
+     * Retrieves the header of row i, which is also the header of column i.
+     *
+     * @param i header index
+     * @return the header
+     * @throws IndexOutOfBoundsException if {@code i} is invalid
+     * @implNote O(1)
+     */
+    public T getHead(int i) {
+        if (i < 0 || i >= head.size()) {
+            throw new IndexOutOfBoundsException("Out of bound!");
+        }
+        return head.get(i);
+    }
+
+    /**
+     * Retrieves the cell value at the given row and column indices.
+     *
+     * @param r row index
+     * @param c column index
+     * @return the cell value
+     * @throws IndexOutOfBoundsException if indices are invalid
+     * @implNote O(1)
+     */
+    public CellT getCell(int r, int c) {
+        if (r < 0 || r >= head.size() || c < 0 || c >= head.size()) {
+            throw new IndexOutOfBoundsException("Out of bound!");
+        }
+        if (r > c) {
+            int t = r;
+            r = c;
+            c = t;
+        }
+        return upper.get(r).get(c - r);
+    }
+
+    /**
+     * Updates the combiner operation and recalculates the stored half of the board.
+     *
+     * @param op the new commutative combiner
+     * @implNote O(N^2 / 2)
+     */
+    public void setOp(OpT op) {
+        this.op = op;
+        for (int r = 0; r < head.size(); r++) {
+            DynamicArray<CellT> row = upper.get(r);
+            for (int c = r; c < head.size(); c++) {
+                row.set(c - r, op.combine(head.get(r), head.get(c)));
+            }
+        }
+    }
+
+    /**
+     * Adds a new header, i.e. a new row and a new column, at the specified index.
+     *
+     * @param i the index where the header should be inserted
+     * @param v the header value
+     * @return true if successfully added, false otherwise
+     * @implNote O(N^2) because every earlier row shifts, O(N) when appending
+     */
+    public boolean addHead(int i, T v) {
+        if (i < 0 || i > head.size()) {
+            return false;
+        }
+        // earlier rows gain the cell for the new column
+        for (int r = 0; r < i; r++) {
+            upper.get(r).add(i - r, op.combine(head.get(r), v));
+        }
+        head.add(i, v);
+        // the new row covers the diagonal and every later column
+        DynamicArray<CellT> row = new DynamicArray<>(Math.max(1, head.size() - i));
+        for (int c = i; c < head.size(); c++) {
+            row.add(op.combine(v, head.get(c)));
+        }
+        upper.add(i, row);
+        return true;
+    }
+
+    /**
+     * Removes and returns the header, i.e. the row and the column, at the specified index.
+     *
+     * @param i the header index
+     * @return the removed header
+     * @throws IndexOutOfBoundsException if index is invalid
+     * @implNote O(N^2) because every earlier row shifts, O(N) when removing the last
+     */
+    public T removeHead(int i) {
+        if (i < 0 || i >= head.size()) {
+            throw new IndexOutOfBoundsException("Out of bound!");
+        }
+        for (int r = 0; r < i; r++) {
+            upper.get(r).remove(i - r);
+        }
+        upper.remove(i);
+        return head.remove(i);
+    }
+
+    /**
+     * Replaces the header at the specified index and recomputes its row and column.
+     *
+     * @param i the header index
+     * @param v the new header value
+     * @return the old header value
+     * @throws IndexOutOfBoundsException if index is invalid
+     * @implNote O(N)
+     */
+    public T setHead(int i, T v) {
+        if (i < 0 || i >= head.size()) {
+            throw new IndexOutOfBoundsException("Out of bound!");
+        }
+        T old = head.set(i, v);
+        for (int r = 0; r < i; r++) {
+            upper.get(r).set(i - r, op.combine(head.get(r), v));
+        }
+        DynamicArray<CellT> row = upper.get(i);
+        for (int c = i; c < head.size(); c++) {
+            row.set(c - i, op.combine(v, head.get(c)));
+        }
+        return old;
+    }
+
+    /**
+     * Returns a string representation of this table.
+     *
+     * @return a string containing the op and size
+     */
+    @Override
+    public String toString() {
+        return "SymmetricTable with operation " + op.getClass() + ", size " + head.size() + " x " + head.size();
+    }
+
+    // --------------------------------------------------------
+    // example testing code... edit this as much as you want!
+    // --------------------------------------------------------
+
+    public static void main(String[] args) {
+        SymmetricTable<Integer, Integer, IntegerAdder> st = new SymmetricTable<>(new IntegerAdder());
+        for (int i = 0; i < 5; i++) {
+            st.addHead(st.getSize(), (i + 1) * 10);
+        }
+        st.addHead(0, 1);
+        if (st.getSize() == 6 && st.getCell(0, 5) == 51 && st.getCell(5, 0) == 51 && st.getCell(3, 3) == 60) {
+            System.out.println("Yay 1");
+        }
+
+        SymmetricTable<Integer, Integer, IntegerTimer> mt = new SymmetricTable<>(new IntegerTimer());
+        for (int i = 0; i < 6; i++) {
+            mt.addHead(mt.getSize(), st.getHead(i));
+        }
+        mt.removeHead(2);
+        mt.setHead(0, 2);
+        if (mt.getSize() == 5 && mt.getCell(4, 0) == 100 && mt.getCell(1, 2) == 300 && mt.getCell(2, 1) == 300) {
+            System.out.println("Yay 2");
+        }
+    }
+}
@@ -1,5 +1,22 @@
 // TO DO: add your implementation and JavaDoc
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+import java.util.stream.IntStream;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
 /**
  * A generic two-dimensional table implementation based on row and column headers.
  *
@@ -12,21 +29,164 @@ public class Table<RowT, ColT, CellT, OpT extends Combiner<RowT, ColT, CellT>> {
 
     private DynamicArray<RowT> rowHead; // rowHead as a list of RowT values
     private DynamicArray<ColT> colHead; // colHead as a list of ColT values
-    private DynamicGrid<CellT> board; // a 2-D grid of CellT values determined by rowHead, colHead, and op
+    private volatile DynamicGrid<CellT> board; // a 2-D grid of CellT values determined by rowHead, colHead, and op
     private OpT op; // op that defines a function f: f(RowT,ColT)-> CellT
 
     // ADD MORE PRIVATE MEMBERS HERE IF NEEDED!
 
+    private static final int INVALID = -1; // stamp of a cell that has never been computed
+
+    // runs setOpAsync recomputations, so blocking combine calls stay off the common fork/join pool
+    private static final ExecutorService ASYNC = Executors.newCachedThreadPool(r -> {
+        Thread t = new Thread(r, "table-async");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private boolean lazy; // true if cells are only computed when first read
+    private StampGrid stamps; // lazy mode only: generation each cell was computed in
+    private int generation; // lazy mode only: cells stamped with another generation are stale
+    private long evaluations; // number of times op.combine has been called
+    private CombineCache<RowT, ColT, CellT> cache; // memoized combinations, null if disabled
+    private volatile CellPool<CellT> pool; // canonical cell objects, null if disabled
+    private CombineExecutor executor; // runs combine calls concurrently, null if sequential
+    private volatile CompletableFuture<Void> pendingOp; // unfinished setOpAsync recomputation, or null
+    private volatile int asyncVersion; // bumped whenever a pending recomputation becomes stale
+    private volatile boolean boardSwapped; // a recomputation published a board the owner has not caught up with
+    private long publishedEvaluations; // cells computed by published recomputations, guarded by this
+    private ColumnWidths widths; // printed column widths, only valid while widthsBoard == board
+    private DynamicGrid<CellT> widthsBoard; // the board widths were measured on
+    private HeaderIndex<RowT> rowIndex; // row header value -> positions, null if disabled
+    private HeaderIndex<ColT> colIndex; // column header value -> positions, null if disabled
+    private DynamicArray<TableAggregate<CellT, ?>> aggregates; // registered aggregates, null if none
+
     /**
      * Constructs an empty table with no rows or columns.
      *
      * @param op the combiner used to generate cell values from row and column headers
      */
     public Table(OpT op) {
+        this(op, false);
+    }
+
+    /**
+     * Constructs an empty table with no rows or columns, optionally in lazy mode.
+     * <p>
+     * In lazy mode the board only records which cells are out of date. A cell is
+     * computed the first time it is read through {@link #getCell(int, int)} and
+     * kept until its row header, column header or the op changes.
+     *
+     * @param op   the combiner used to generate cell values from row and column headers
+     * @param lazy true to compute cells on first access instead of eagerly
+     */
+    public Table(OpT op, boolean lazy) {
         rowHead = new DynamicArray<>();
         colHead = new DynamicArray<>();
         board = new DynamicGrid<>();
         this.op = op;
+        this.lazy = lazy;
+        if (lazy) {
+            stamps = new StampGrid(0, 0, INVALID);
+        }
+    }
+
+    /**
+     * Builds an eager table with the given headers in one pass.
+     *
+     * @param <RowT>   the type of row header values
+     * @param <ColT>   the type of column header values
+     * @param <CellT>  the type of cell values
+     * @param <OpT>    a combiner type that implements {@link Combiner}
+     * @param op       the combiner used to generate cell values from row and column headers
+     * @param rowHeads the row headers, in order
+     * @param colHeads the column headers, in order
+     * @return the table
+     * @implNote O(RC), see {@link #of(Combiner, DynamicArray, DynamicArray, boolean)}
+     */
+    public static <RowT, ColT, CellT, OpT extends Combiner<RowT, ColT, CellT>> Table<RowT, ColT, CellT, OpT>
+            of(OpT op, DynamicArray<? extends RowT> rowHeads, DynamicArray<? extends ColT> colHeads) {
+        return of(op, rowHeads, colHeads, false);
+    }
+
+    /**
+     * Builds an eager table with the given headers in one pass, optionally computing
+     * the rows in parallel.
+     * <p>
+     * Unlike R calls to {@link #addRow(int, Object)} and C calls to
+     * {@link #addCol(int, Object)}, every array is allocated once with its exact size
+     * and filled front to back, so nothing is shifted or resized. Rows are computed
+     * through {@link BatchCombiner#combineRow(Object, DynamicArray, DynamicArray)}
+     * when op supports it.
+     *
+     * @param <RowT>   the type of row header values
+     * @param <ColT>   the type of column header values
+     * @param <CellT>  the type of cell values
+     * @param <OpT>    a combiner type that implements {@link Combiner}
+     * @param op       the combiner used to generate cell values from row and column headers
+     * @param rowHeads the row headers, in order
+     * @param colHeads the column headers, in order
+     * @param parallel true to compute rows on the common fork/join pool, in which
+     *                 case op must be safe to call from several threads
+     * @return the table
+     * @implNote O(RC)
+     */
+    @SuppressWarnings("unchecked")
+    public static <RowT, ColT, CellT, OpT extends Combiner<RowT, ColT, CellT>> Table<RowT, ColT, CellT, OpT>
+            of(OpT op, DynamicArray<? extends RowT> rowHeads, DynamicArray<? extends ColT> colHeads,
+            boolean parallel) {
+        int numRow = rowHeads.size();
+        int numCol = colHeads.size();
+        DynamicArray<RowT> rows = new DynamicArray<>(Math.max(1, numRow));
+        for (int r = 0; r < numRow; r++) {
+            rows.add(rowHeads.get(r));
+        }
+        DynamicArray<ColT> cols = new DynamicArray<>(Math.max(1, numCol));
+        for (int c = 0; c < numCol; c++) {
+            cols.add(colHeads.get(c));
+        }
+
+        Table<RowT, ColT, CellT, OpT> table = new Table<>(op);
+        table.rowHead = rows;
+        table.colHead = cols;
+        if (parallel && numRow > 1) {
+            Object[] built = new Object[numRow];
+            IntStream.range(0, numRow).parallel().forEach(r -> built[r] = buildRow(op, rows.get(r), cols));
+            for (int r = 0; r < numRow; r++) {
+                table.board.adoptRow((DynamicArray<CellT>) built[r]);
+            }
+        } else {
+            for (int r = 0; r < numRow; r++) {
+                table.board.adoptRow(buildRow(op, rows.get(r), cols));
+            }
+        }
+        table.evaluations = (long) numRow * numCol;
+        return table;
+    }
+
+    /**
+     * Computes one row for {@link #of(Combiner, DynamicArray, DynamicArray, boolean)},
+     * touching no table state so rows can be built on any thread.
+     *
+     * @param <RowT>  the type of row header values
+     * @param <ColT>  the type of column header values
+     * @param <CellT> the type of cell values
+     * @param op      the combiner
+     * @param v       the row header
+     * @param cols    the column headers
+     * @return the cells of the row, in an array of exactly cols.size() capacity
+     */
+    @SuppressWarnings("unchecked")
+    private static <RowT, ColT, CellT> DynamicArray<CellT> buildRow(Combiner<RowT, ColT, CellT> op, RowT v,
+            DynamicArray<ColT> cols) {
+        DynamicArray<CellT> row = new DynamicArray<>(Math.max(1, cols.size()));
+        if (op instanceof BatchCombiner) {
+            ((BatchCombiner<RowT, ColT, CellT>) op).combineRow(v, cols, row);
+            return row;
+        }
+        for (int k = 0; k < cols.size(); k++) {
+            row.add(op.combine(v, cols.get(k)));
+        }
+        return row;
     }
 
     /**
@@ -111,26 +271,401 @@ public class Table<RowT, ColT, CellT, OpT extends Combiner<RowT, ColT, CellT>> {
         if (r < 0 || r > rowHead.size() || c < 0 || c >= colHead.size()) {
             throw new IndexOutOfBoundsException("Out of bound!");
         }
+        if (lazy && stamps.get(r, c) != generation) {
+            CellT value = evaluate(rowHead.get(r), colHead.get(c));
+            board.set(r, c, value);
+            stamps.set(r, c, generation);
+            return value;
+        }
         return board.get(r, c);
         // return the cell at row r, column c from board
         // throw IndexOutOfBoundsException for invalid index
         // O(1)
     }
 
+    /**
+     * Turns on hash indexes over the row and column headers, so that
+     * {@link #indexOfRow(Object)}, {@link #indexOfCol(Object)} and
+     * {@link #getCellByHead(Object, Object)} run in O(1) average time.
+     * <p>
+     * The indexes are kept in sync by every header change. Appending, removing the
+     * last row or column, and setRow/setCol update them in O(1); inserting or
+     * removing in the middle shifts the stored positions in O(R) or O(C), which
+     * the header lists pay anyway. Lookups stay O(1) on average either way.
+     *
+     * @implNote O(R + C)
+     */
+    public void enableHeaderIndex() {
+        rowIndex = new HeaderIndex<>(rowHead);
+        colIndex = new HeaderIndex<>(colHead);
+    }
+
+    /**
+     * Turns off the header indexes; lookups by header value fall back to scanning.
+     *
+     * @implNote O(1)
+     */
+    public void disableHeaderIndex() {
+        rowIndex = null;
+        colIndex = null;
+    }
+
+    /**
+     * Finds the first row whose header equals v.
+     *
+     * @param v the row header value to look for
+     * @return the index of the first such row, or -1 if there is none
+     * @implNote O(1) average with the header index enabled, O(R) otherwise
+     */
+    public int indexOfRow(RowT v) {
+        if (rowIndex == null) {
+            for (int i = 0; i < rowHead.size(); i++) {
+                if (v == null ? rowHead.get(i) == null : v.equals(rowHead.get(i))) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+        return rowIndex.indexOf(v);
+    }
+
+    /**
+     * Finds the first column whose header equals v.
+     *
+     * @param v the column header value to look for
+     * @return the index of the first such column, or -1 if there is none
+     * @implNote O(1) average with the header index enabled, O(C) otherwise
+     */
+    public int indexOfCol(ColT v) {
+        if (colIndex == null) {
+            for (int i = 0; i < colHead.size(); i++) {
+                if (v == null ? colHead.get(i) == null : v.equals(colHead.get(i))) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+        return colIndex.indexOf(v);
+    }
+
+    /**
+     * Retrieves the cell of the first row with header r and the first column with
+     * header c. (Named apart from {@link #getCell(int, int)} so that tables with
+     * Integer headers cannot mix up positions and header values.)
+     *
+     * @param r the row header value
+     * @param c the column header value
+     * @return the cell value
+     * @throws IllegalArgumentException if r is not a row header or c is not a column header
+     * @implNote O(1) average with the header index enabled, O(R + C) otherwise
+     */
+    public CellT getCellByHead(RowT r, ColT c) {
+        int i = indexOfRow(r);
+        int j = indexOfCol(c);
+        if (i < 0 || j < 0) {
+            throw new IllegalArgumentException("Header not found!");
+        }
+        return getCell(i, j);
+    }
+
+    /**
+     * Registers an aggregate of this table's cells (per row, per column and in
+     * total) that is kept up to date as cells change. Reading it never scans the
+     * whole board, except once after the whole board was recomputed.
+     *
+     * @param <V> the type of the aggregated value
+     * @param agg how to aggregate cells, e.g. {@link Aggregator#sum()}
+     * @return the live aggregate
+     * @throws IllegalStateException if the table is lazy
+     * @implNote O(1); the aggregate is computed on its first read
+     */
+    public <V> TableAggregate<CellT, V> addAggregate(Aggregator<? super CellT, V> agg) {
+        if (lazy) {
+            throw new IllegalStateException("Aggregates need an eager table!");
+        }
+        TableAggregate<CellT, V> a = new TableAggregate<>(agg, this);
+        if (aggregates == null) {
+            aggregates = new DynamicArray<>();
+        }
+        aggregates.add(a);
+        return a;
+    }
+
+    /**
+     * Stops keeping an aggregate up to date.
+     *
+     * @param a an aggregate returned by {@link #addAggregate(Aggregator)}
+     * @return true if a was registered with this table
+     * @implNote O(number of aggregates)
+     */
+    public boolean removeAggregate(TableAggregate<CellT, ?> a) {
+        if (aggregates == null) {
+            return false;
+        }
+        for (int k = 0; k < aggregates.size(); k++) {
+            if (aggregates.get(k) == a) {
+                aggregates.remove(k);
+                if (aggregates.size() == 0) {
+                    aggregates = null;
+                }
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Reports whether this table computes its cells lazily.
+     *
+     * @return true if cells are computed on first access
+     * @implNote O(1)
+     */
+    public boolean isLazy() {
+        return lazy;
+    }
+
+    /**
+     * Switches between lazy and eager evaluation.
+     * <p>
+     * Turning lazy mode on keeps every current cell valid. Turning it off computes
+     * every cell that is still out of date so that the board is complete again.
+     *
+     * @param lazy true to compute cells on first access, false to keep every cell computed
+     * @implNote O(RC)
+     */
+    public void setLazy(boolean lazy) {
+        if (this.lazy == lazy) {
+            return;
+        }
+        if (lazy && aggregates != null) {
+            throw new IllegalStateException("Aggregates need an eager table!");
+        }
+        cancelPendingOp();
+        widths = null;
+        if (lazy) {
+            generation = 0;
+            stamps = new StampGrid(rowHead.size(), colHead.size(), generation);
+        } else {
+            for (int i = 0; i < rowHead.size(); i++) {
+                for (int j = 0; j < colHead.size(); j++) {
+                    getCell(i, j);
+                }
+            }
+            stamps = null;
+        }
+        this.lazy = lazy;
+    }
+
+    /**
+     * Returns how many cells have been computed with op since the table was
+     * created or the counter was last reset.
+     *
+     * @return the number of op.combine calls made by this table
+     * @implNote O(1)
+     */
+    public long getEvaluationCount() {
+        catchUpAsync();
+        return evaluations;
+    }
+
+    /**
+     * Resets the evaluated cell counter to zero.
+     *
+     * @implNote O(1)
+     */
+    public void resetEvaluationCount() {
+        catchUpAsync();
+        evaluations = 0;
+    }
+
+    /**
+     * Turns on memoization of op results, replacing any existing cache.
+     * <p>
+     * Cells whose row and column headers repeat a pair that was already combined
+     * with the same op reuse the cached value instead of calling op.combine again.
+     * The least recently used pair is evicted once {@code capacity} pairs are cached.
+     *
+     * @param capacity the max number of header pairs to remember
+     * @throws IllegalArgumentException if {@code capacity < 1}
+     * @implNote O(capacity)
+     */
+    public void enableCache(int capacity) {
+        cache = new CombineCache<>(capacity);
+    }
+
+    /**
+     * Turns off memoization and drops every cached value.
+     *
+     * @implNote O(1)
+     */
+    public void disableCache() {
+        cache = null;
+    }
+
+    /**
+     * Returns the memoization cache so its hit rate and size can be inspected.
+     *
+     * @return the cache, or null if memoization is off
+     * @implNote O(1)
+     */
+    public CombineCache<RowT, ColT, CellT> getCache() {
+        return cache;
+    }
+
+    /**
+     * Turns on deduplication of cell values, replacing any existing pool: every cell
+     * computed from now on is swapped for an equal object already on the board when
+     * there is one, so equal cells share one object. The cells already on the board
+     * are deduplicated right away.
+     *
+     * @param capacity the max number of distinct values pooled
+     * @throws IllegalArgumentException if {@code capacity < 1}
+     * @implNote O(RC)
+     */
+    public void enableCellPool(int capacity) {
+        pool = new CellPool<>(capacity);
+        for (int i = 0; i < rowHead.size(); i++) {
+            for (int j = 0; j < colHead.size(); j++) {
+                CellT cell = board.get(i, j);
+                if (cell != null) {
+                    board.set(i, j, pooled(cell));
+                }
+            }
+        }
+    }
+
+    /**
+     * Turns off deduplication. Cells keep sharing the objects they already share.
+     */
+    public void disableCellPool() {
+        pool = null;
+    }
+
+    /**
+     * Returns the cell pool so its size and savings can be inspected.
+     *
+     * @return the pool, or null if deduplication is off
+     */
+    public CellPool<CellT> getCellPool() {
+        return pool;
+    }
+
+    /**
+     * Runs combine calls concurrently from now on, for ops that are slow because
+     * they block (on a service, a file, ...) rather than because they compute.
+     * <p>
+     * Every row, column or board recomputation submits its cells as separate calls,
+     * at most {@code maxConcurrent} at a time, and only writes the board once all of
+     * them have finished. If any call runs longer than {@code timeoutMillis} the
+     * operation fails with an {@link IllegalStateException} and the table is left
+     * unchanged. Single cells read in lazy mode are still computed on the caller.
+     * Ops used this way must be safe to call from several threads at once. The
+     * executor of an earlier call is shut down.
+     *
+     * @param maxConcurrent max number of combine calls running at the same time
+     * @param timeoutMillis max time in milliseconds a single combine call may run
+     * @throws IllegalArgumentException if {@code maxConcurrent < 1} or {@code timeoutMillis < 1}
+     */
+    public void setConcurrent(int maxConcurrent, long timeoutMillis) {
+        CombineExecutor next = new CombineExecutor(maxConcurrent, timeoutMillis);
+        cancelPendingOp();
+        closeExecutor();
+        executor = next;
+    }
+
+    /**
+     * Goes back to computing every cell on the calling thread and shuts the
+     * concurrent executor down.
+     *
+     * @implNote O(1)
+     */
+    public void setSequential() {
+        cancelPendingOp();
+        closeExecutor();
+    }
+
+    /**
+     * Shuts down the concurrent executor, if any, and forgets it.
+     */
+    private void closeExecutor() {
+        if (executor != null) {
+            executor.close();
+            executor = null;
+        }
+    }
+
+    /**
+     * Reports whether combine calls run concurrently.
+     *
+     * @return true if {@link #setConcurrent(int, long)} is in effect
+     * @implNote O(1)
+     */
+    public boolean isConcurrent() {
+        return executor != null;
+    }
+
     /**
      * Updates the combiner operation and recalculates all cell values.
+     * <p>
+     * In lazy mode no cell is recalculated here; every cell is marked out of date
+     * and recomputed with the new op when it is next read. If op is
+     * {@link Commutative} and the row headers equal the column headers, only the
+     * upper triangle is computed and mirrored. (For a table that also stores only
+     * half of such a board, see {@link SymmetricTable}.)
      *
      * @param op the new combiner
-     * @implNote O(RC)
+     * @implNote O(RC), O(1) in lazy mode
      */
     public void setOp(OpT op) {
 
+        cancelPendingOp();
+        if (!lazy && executor != null) {
+            // compute the whole board with the new op first so a timeout changes nothing
+            int cols = colHead.size();
+            DynamicArray<CellT> cells = computeConcurrently(op, rowHead.size() * cols,
+                    k -> rowHead.get(k / cols), k -> colHead.get(k % cols));
+            this.op = op;
+            widths = null;
+            invalidateAggregates();
+            for (int k = 0; k < cells.size(); k++) {
+                board.set(k / cols, k % cols, cells.get(k));
+            }
+            return;
+        }
+
         this.op = op;
+        widths = null;
+        invalidateAggregates();
+
+        if (lazy) {
+            if (generation == Integer.MAX_VALUE) {
+                // stamps would wrap around: invalidate explicitly and start over
+                stamps.fill(INVALID);
+                generation = 0;
+            } else {
+                generation++;
+            }
+            return;
+        }
+
+        if (op instanceof Commutative && isSymmetricLayout()) {
+            // cell (j, i) equals cell (i, j): compute the upper triangle and mirror it
+            for (int i = 0; i < rowHead.size(); i++) {
+                for (int j = i; j < colHead.size(); j++) {
+                    CellT value = evaluate(rowHead.get(i), colHead.get(j));
+                    board.set(i, j, value);
+                    if (j != i) {
+                        board.set(j, i, value);
+                    }
+                }
+            }
+            return;
+        }
 
         for (int i = 0; i < rowHead.size(); i++) {
+            DynamicArray<CellT> row = computeRow(rowHead.get(i));
             for (int j = 0; j < colHead.size(); j++) {
-                CellT value = op.combine(rowHead.get(i), colHead.get(j));
-                board.set(i, j, value);
+                board.set(i, j, row.get(j));
             }
         }
         // change the operation
@@ -140,6 +675,155 @@ public class Table<RowT, ColT, CellT, OpT extends Combiner<RowT, ColT, CellT>> {
         // grid
     }
 
+    /**
+     * Changes the op and recalculates all cell values in the background.
+     * <p>
+     * The new board is built from a snapshot of the headers and published, together
+     * with the new op, in one step once every cell is computed. Until then readers
+     * keep seeing the previous board and op. A later call to this method, to
+     * {@link #setOp(Combiner)}, or any structural or header change cancels the
+     * pending recomputation, as does cancelling the returned future. In lazy mode
+     * there is nothing to compute, so the op is changed right away.
+     * <p>
+     * The recomputation runs on a dedicated daemon thread rather than the common
+     * fork/join pool, since combine calls may block. With
+     * {@link #setConcurrent(int, long)} in effect its cells are submitted to the
+     * concurrent executor, under the same limit and timeout.
+     *
+     * @param op the new combiner, must be safe to call from another thread
+     * @return a future that completes when the new board is published, is cancelled
+     *         if it was superseded, and completes exceptionally if op.combine threw
+     * @implNote O(R + C) on the caller, O(RC) in the background
+     */
+    public CompletableFuture<Void> setOpAsync(OpT op) {
+        cancelPendingOp();
+        if (lazy) {
+            setOp(op);
+            return CompletableFuture.completedFuture(null);
+        }
+
+        DynamicArray<RowT> rows = new DynamicArray<>(Math.max(1, rowHead.size()));
+        for (int k = 0; k < rowHead.size(); k++) {
+            rows.add(rowHead.get(k));
+        }
+        DynamicArray<ColT> cols = new DynamicArray<>(Math.max(1, colHead.size()));
+        for (int k = 0; k < colHead.size(); k++) {
+            cols.add(colHead.get(k));
+        }
+
+        CompletableFuture<Void> result = new CompletableFuture<>();
+        CombineExecutor calls = executor;
+        int version;
+        synchronized (this) {
+            version = ++asyncVersion;
+            pendingOp = result;
+        }
+        CompletableFuture.runAsync(() -> {
+            try {
+                recomputeInBackground(op, rows, cols, calls, version, result);
+            } catch (RuntimeException | Error e) {
+                result.completeExceptionally(e);
+            }
+        }, ASYNC);
+        return result;
+    }
+
+    /**
+     * Builds a new board for op and publishes it unless the recomputation was
+     * cancelled in the meantime.
+     *
+     * @param newOp   the op to compute with
+     * @param rows    snapshot of the row headers
+     * @param cols    snapshot of the column headers
+     * @param calls   the concurrent executor to submit the cells to, or null to
+     *                compute them on this thread
+     * @param version the asyncVersion this recomputation belongs to
+     * @param result  the future to complete
+     */
+    @SuppressWarnings("unchecked")
+    private void recomputeInBackground(OpT newOp, DynamicArray<RowT> rows, DynamicArray<ColT> cols,
+            CombineExecutor calls, int version, CompletableFuture<Void> result) {
+        int numCol = cols.size();
+        Object[] cells = calls == null ? null
+                : calls.run(rows.size() * numCol, k -> newOp.combine(rows.get(k / numCol), cols.get(k % numCol)));
+        DynamicGrid<CellT> next = new DynamicGrid<>();
+        for (int r = 0; r < rows.size(); r++) {
+            if (version != asyncVersion || result.isDone()) {
+                return;
+            }
+            DynamicArray<CellT> row = new DynamicArray<>(Math.max(1, numCol));
+            if (cells != null) {
+                for (int c = 0; c < numCol; c++) {
+                    row.add((CellT) cells[r * numCol + c]);
+                }
+            } else if (newOp instanceof BatchCombiner) {
+                ((BatchCombiner<RowT, ColT, CellT>) newOp).combineRow(rows.get(r), cols, row);
+            } else {
+                for (int c = 0; c < cols.size(); c++) {
+                    row.add(newOp.combine(rows.get(r), cols.get(c)));
+                }
+            }
+            if (pool != null) {
+                for (int c = 0; c < row.size(); c++) {
+                    row.set(c, pooled(row.get(c)));
+                }
+            }
+            next.addRow(r, row);
+        }
+        synchronized (this) {
+            if (version != asyncVersion || result.isDone()) {
+                return;
+            }
+            // only op and board are published here; the owner thread counts the
+            // evaluations and invalidates the aggregates when it catches up
+            op = newOp;
+            board = next;
+            publishedEvaluations += (long) rows.size() * numCol;
+            boardSwapped = true;
+            pendingOp = null; // volatile write last: publishes op and board to the owner thread
+        }
+        result.complete(null);
+    }
+
+    /**
+     * Catches up with a board published by {@link #setOpAsync(Combiner)}: counts
+     * its evaluations and invalidates the aggregates, on the owner thread. Called
+     * before any of that state is read or changed.
+     */
+    void catchUpAsync() {
+        if (!boardSwapped) {
+            return;
+        }
+        long n;
+        synchronized (this) {
+            n = publishedEvaluations;
+            publishedEvaluations = 0;
+            boardSwapped = false;
+        }
+        evaluations += n;
+        invalidateAggregates();
+    }
+
+    /**
+     * Cancels the pending setOpAsync recomputation, if any, so it can no longer
+     * publish a board built from headers that are about to change.
+     */
+    private void cancelPendingOp() {
+        catchUpAsync();
+        if (pendingOp == null) {
+            return;
+        }
+        CompletableFuture<Void> stale;
+        synchronized (this) {
+            asyncVersion++;
+            stale = pendingOp;
+            pendingOp = null;
+        }
+        if (stale != null) {
+            stale.cancel(false);
+        }
+    }
+
     /**
      * Adds a new row at the specified index.
      *
@@ -153,14 +837,36 @@ public class Table<RowT, ColT, CellT, OpT extends Combiner<RowT, ColT, CellT>> {
         if (i < 0 || i > rowHead.size()) {
             return false;
         }
+        cancelPendingOp();
 
+        DynamicArray<CellT> newRow;
+        if (lazy) {
+            newRow = new DynamicArray<>();
+            for (int k = 0; k < colHead.size(); k++) {
+                newRow.add(null);
+            }
+        } else {
+            newRow = computeRow(v);
+        }
         rowHead.add(i, v);
-        DynamicArray<CellT> newRow = new DynamicArray<>();
-        for (int k = 0; k < colHead.size(); k++) {
-            CellT value = op.combine(v, colHead.get(k));
-            newRow.add(value);
+        if (rowIndex != null) {
+            rowIndex.insert(v, i);
         }
         board.addRow(i, newRow);
+        if (lazy) {
+            stamps.addRow(i, INVALID);
+        }
+        ColumnWidths w = trackedWidths();
+        if (w != null) {
+            for (int k = 0; k < newRow.size(); k++) {
+                w.add(k, ColumnWidths.widthOf(newRow.get(k)));
+            }
+        }
+        if (aggregates != null) {
+            for (int k = 0; k < aggregates.size(); k++) {
+                aggregates.get(k).rowAdded(i, newRow);
+            }
+        }
         // insert v to rowHead at index i
         // also insert a new row to the grid at row index i
         // calculate the new row based on v, existing colHead and op
@@ -185,14 +891,37 @@ public class Table<RowT, ColT, CellT, OpT extends Combiner<RowT, ColT, CellT>> {
         if (i < 0 || i > colHead.size()) {
             return false;
         }
+        cancelPendingOp();
+        DynamicArray<CellT> newCol;
+        if (lazy) {
+            newCol = new DynamicArray<>();
+            for (int k = 0; k < rowHead.size(); k++) {
+                newCol.add(null);
+            }
+        } else {
+            newCol = computeCol(v);
+        }
         colHead.add(i, v);
-        DynamicArray<CellT> newCol = new DynamicArray<>();
-        for (int k = 0; k < rowHead.size(); k++) {
-            CellT value = op.combine(rowHead.get(k), v);
-            newCol.add(value);
+        if (colIndex != null) {
+            colIndex.insert(v, i);
         }
 
         board.addCol(i, newCol);
+        if (lazy) {
+            stamps.addCol(i, INVALID);
+        }
+        ColumnWidths w = trackedWidths();
+        if (w != null) {
+            w.insert(i);
+            for (int k = 0; k < newCol.size(); k++) {
+                w.add(i, ColumnWidths.widthOf(newCol.get(k)));
+            }
+        }
+        if (aggregates != null) {
+            for (int k = 0; k < aggregates.size(); k++) {
+                aggregates.get(k).colAdded(i, newCol);
+            }
+        }
 
         // insert v to colHead at index i
         // also insert a new column to the grid at column index i
@@ -218,11 +947,30 @@ public class Table<RowT, ColT, CellT, OpT extends Combiner<RowT, ColT, CellT>> {
         if (i < 0 || i >= rowHead.size()) {
             throw new IndexOutOfBoundsException("Out of bound!");
         }
+        cancelPendingOp();
 
         RowT removeHead = rowHead.remove(i);
+        if (rowIndex != null) {
+            rowIndex.delete(removeHead, i);
+        }
 
         //remove from board
-        board.removeRow(i);
+        DynamicArray<CellT> removedRow = board.removeRow(i);
+        ColumnWidths w = trackedWidths();
+        if (w != null) {
+            for (int k = 0; k < removedRow.size(); k++) {
+                w.drop(k, ColumnWidths.widthOf(removedRow.get(k)));
+            }
+        }
+        if (aggregates != null) {
+            for (int k = 0; k < aggregates.size(); k++) {
+                aggregates.get(k).rowRemoved(i, removedRow);
+            }
+        }
+        if (lazy) {
+            stamps.removeRow(i);
+        }
+        rowGone(removeHead);
         // remove and return value from rowHead at index i
         // also remove row i from grid
         // throw IndexOutOfBoundsException for invalid index
@@ -245,11 +993,27 @@ public class Table<RowT, ColT, CellT, OpT extends Combiner<RowT, ColT, CellT>> {
         if (i < 0 || i >= colHead.size()) {
             throw new IndexOutOfBoundsException("Out of bound!");
         }
+        cancelPendingOp();
 
         ColT removeHead = colHead.remove(i);
+        if (colIndex != null) {
+            colIndex.delete(removeHead, i);
+        }
 
         //remmove column
-        board.removeCol(i);
+        DynamicArray<CellT> removedCol = board.removeCol(i);
+        ColumnWidths w = trackedWidths();
+        if (w != null) {
+            w.remove(i);
+        }
+        if (aggregates != null) {
+            for (int k = 0; k < aggregates.size(); k++) {
+                aggregates.get(k).colRemoved(i, removedCol);
+            }
+        }
+        if (lazy) {
+            stamps.removeCol(i);
+        }
 
 
         // remove and return value from colHead at index i
@@ -276,15 +1040,32 @@ public class Table<RowT, ColT, CellT, OpT extends Combiner<RowT, ColT, CellT>> {
         if (i < 0 || i >= rowHead.size()) {
             throw new IndexOutOfBoundsException("Out of bound!");
         }
+        cancelPendingOp();
 
         RowT oldHead = rowHead.get(i);
 
+        DynamicArray<CellT> row = lazy ? null : computeRow(v);
         //update head
         rowHead.set(i, v);
+        if (rowIndex != null) {
+            rowIndex.remove(oldHead, i);
+            rowIndex.add(v, i);
+        }
+        ColumnWidths w = trackedWidths();
         for (int k = 0; k < colHead.size(); k++) {
-            CellT value = op.combine(v, colHead.get(k));
-            board.set(i, k, value);
+            if (lazy) {
+                board.set(i, k, null);
+                stamps.set(i, k, INVALID);
+            } else {
+                CellT old = board.set(i, k, row.get(k));
+                if (w != null) {
+                    w.drop(k, ColumnWidths.widthOf(old));
+                    w.add(k, ColumnWidths.widthOf(row.get(k)));
+                }
+                cellChanged(i, k, old, row.get(k));
+            }
         }
+        rowGone(oldHead);
         // change value of rowHead at index i to be v
         // also change the ith row of grid using v, the ColTs, and op
         // return old value of rowHead from index i
@@ -308,13 +1089,31 @@ public class Table<RowT, ColT, CellT, OpT extends Combiner<RowT, ColT, CellT>> {
         if (i < 0 || i >= colHead.size()) {
             throw new IndexOutOfBoundsException("Out of bound!");
         }
+        cancelPendingOp();
 
         ColT oldHead = colHead.get(i);
 
+        DynamicArray<CellT> col = lazy ? null : computeCol(v);
         colHead.set(i, v);
+        if (colIndex != null) {
+            colIndex.remove(oldHead, i);
+            colIndex.add(v, i);
+        }
+        ColumnWidths w = trackedWidths();
+        if (w != null) {
+            w.reset(i);
+        }
         for (int k = 0; k < rowHead.size(); k++) {
-            CellT value = op.combine(rowHead.get(k), v);
-            board.set(k, i, value);
+            if (lazy) {
+                board.set(k, i, null);
+                stamps.set(k, i, INVALID);
+            } else {
+                CellT old = board.set(k, i, col.get(k));
+                if (w != null) {
+                    w.add(i, ColumnWidths.widthOf(col.get(k)));
+                }
+                cellChanged(k, i, old, col.get(k));
+            }
         }
         // change value of colHead at index i to be v
         // also change the ith column of grid using v, the RowTs, and op
@@ -326,6 +1125,277 @@ public class Table<RowT, ColT, CellT, OpT extends Combiner<RowT, ColT, CellT>> {
 
     }
 
+    /**
+     * Computes the value of a single cell with the current op, going through the
+     * memoization cache when it is enabled.
+     *
+     * @param r the row header of the cell
+     * @param c the column header of the cell
+     * @return the combination of r and c
+     */
+    private CellT evaluate(RowT r, ColT c) {
+        if (cache != null) {
+            CellT value = cache.get(op, r, c);
+            if (value != null) {
+                return value;
+            }
+        }
+        evaluations++;
+        CellT value = pooled(op.combine(r, c));
+        if (cache != null) {
+            cache.put(op, r, c, value);
+        }
+        return value;
+    }
+
+    /**
+     * Computes a full row of cells against the current column headers.
+     *
+     * @param v the row header
+     * @return the cells of the row, in column order
+     */
+    private DynamicArray<CellT> computeRow(RowT v) {
+        return computeRow(v, colHead);
+    }
+
+    /**
+     * Computes a full row of cells against the given column headers. In concurrent
+     * mode the cells are computed as separate calls. Otherwise, if op is a
+     * {@link BatchCombiner} (and no cache is in the way) the row is produced by a
+     * single combineRow call, or else cell by cell.
+     *
+     * @param v    the row header
+     * @param cols the column headers
+     * @return the cells of the row, in column order
+     */
+    @SuppressWarnings("unchecked")
+    private DynamicArray<CellT> computeRow(RowT v, DynamicArray<ColT> cols) {
+        if (executor != null) {
+            return computeConcurrently(op, cols.size(), k -> v, cols::get);
+        }
+        DynamicArray<CellT> row = new DynamicArray<>(Math.max(1, cols.size()));
+        if (cache == null && op instanceof BatchCombiner) {
+            ((BatchCombiner<RowT, ColT, CellT>) op).combineRow(v, cols, row);
+            evaluations += cols.size();
+            if (pool != null) {
+                for (int k = 0; k < row.size(); k++) {
+                    row.set(k, pooled(row.get(k)));
+                }
+            }
+            return row;
+        }
+        for (int k = 0; k < cols.size(); k++) {
+            row.add(evaluate(v, cols.get(k)));
+        }
+        return row;
+    }
+
+    /**
+     * Computes a full column of cells against the current row headers.
+     *
+     * @param v the column header
+     * @return the cells of the column, in row order
+     */
+    private DynamicArray<CellT> computeCol(ColT v) {
+        if (executor != null) {
+            return computeConcurrently(op, rowHead.size(), rowHead::get, k -> v);
+        }
+        DynamicArray<CellT> col = new DynamicArray<>(Math.max(1, rowHead.size()));
+        for (int k = 0; k < rowHead.size(); k++) {
+            col.add(evaluate(rowHead.get(k), v));
+        }
+        return col;
+    }
+
+    /**
+     * Computes n cells on the concurrent executor. Cache lookups and updates
+     * happen on the calling thread; only the misses are submitted.
+     *
+     * @param with  the op to compute the cells with
+     * @param n     the number of cells
+     * @param rowAt the row header of cell k
+     * @param colAt the column header of cell k
+     * @return the n cells, cell k at index k
+     */
+    @SuppressWarnings("unchecked")
+    private DynamicArray<CellT> computeConcurrently(OpT with, int n, IntFunction<RowT> rowAt,
+            IntFunction<ColT> colAt) {
+        Object[] cells = new Object[n];
+        int[] misses = new int[n];
+        int numMisses = 0;
+        for (int k = 0; k < n; k++) {
+            CellT hit = cache == null ? null : cache.get(with, rowAt.apply(k), colAt.apply(k));
+            if (hit != null) {
+                cells[k] = hit;
+            } else {
+                misses[numMisses++] = k;
+            }
+        }
+
+        Object[] computed = executor.run(numMisses,
+                j -> with.combine(rowAt.apply(misses[j]), colAt.apply(misses[j])));
+        evaluations += numMisses;
+
+        for (int j = 0; j < numMisses; j++) {
+            int k = misses[j];
+            computed[j] = pooled((CellT) computed[j]);
+            cells[k] = computed[j];
+            if (cache != null) {
+                cache.put(with, rowAt.apply(k), colAt.apply(k), (CellT) computed[j]);
+            }
+        }
+        DynamicArray<CellT> result = new DynamicArray<>(Math.max(1, n));
+        for (int k = 0; k < n; k++) {
+            result.add((CellT) cells[k]);
+        }
+        return result;
+    }
+
+    /**
+     * Swaps a freshly computed cell for its pooled equal, if deduplication is on.
+     *
+     * @param value the cell
+     * @return an equal cell, shared with other cells where possible
+     */
+    private CellT pooled(CellT value) {
+        CellPool<CellT> p = pool;
+        return p == null ? value : p.intern(value);
+    }
+
+    /**
+     * Tells the op that a row header left the table, if it wants to know.
+     *
+     * @param v the removed or replaced row header
+     */
+    @SuppressWarnings("unchecked")
+    private void rowGone(RowT v) {
+        if (op instanceof RowObserver) {
+            ((RowObserver<RowT>) op).rowRemoved(v);
+        }
+    }
+
+    /**
+     * Checks whether the row headers and the column headers are the same sequence.
+     *
+     * @return true if the board is square and row header k equals column header k for every k
+     * @implNote O(R)
+     */
+    private boolean isSymmetricLayout() {
+        if (rowHead.size() != colHead.size()) {
+            return false;
+        }
+        for (int k = 0; k < rowHead.size(); k++) {
+            RowT r = rowHead.get(k);
+            if (r == null ? colHead.get(k) != null : !r.equals(colHead.get(k))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Tells every registered aggregate that one cell was replaced.
+     *
+     * @param r        row index of the cell
+     * @param c        column index of the cell
+     * @param oldValue the previous cell
+     * @param newValue the new cell
+     */
+    private void cellChanged(int r, int c, CellT oldValue, CellT newValue) {
+        if (aggregates != null) {
+            for (int k = 0; k < aggregates.size(); k++) {
+                aggregates.get(k).cellChanged(r, c, oldValue, newValue);
+            }
+        }
+    }
+
+    /**
+     * Tells every registered aggregate that the whole board changed.
+     */
+    private void invalidateAggregates() {
+        if (aggregates != null) {
+            for (int k = 0; k < aggregates.size(); k++) {
+                aggregates.get(k).invalidate();
+            }
+        }
+    }
+
+    /**
+     * Applies a group of structural and header changes in one pass.
+     * <p>
+     * The edits are recorded on a {@link TableBatch} without touching this table.
+     * Afterwards the headers and board are rebuilt once: cells whose row and column
+     * were kept unchanged are copied over and every other final cell is computed
+     * exactly once, no matter how many edits touched it. If {@code edits} throws,
+     * the table is left unchanged. The batch cannot be edited after this returns.
+     *
+     * @param edits the changes to make, e.g. {@code b -> { b.addRow(0, v); b.setCol(2, w); }}
+     * @implNote O(RC) for the final R rows and C columns, plus the cost of each edit on the batch
+     */
+    public void batch(Consumer<TableBatch<RowT, ColT>> edits) {
+        TableBatch<RowT, ColT> b = new TableBatch<>(rowHead, colHead);
+        edits.accept(b);
+        // the table adopts the batch's header lists, so b must not change them any more
+        b.markApplied();
+        cancelPendingOp();
+
+        DynamicArray<RowT> oldRowHead = rowHead;
+        DynamicArray<RowT> newRowHead = b.rows();
+        DynamicArray<ColT> newColHead = b.cols();
+        DynamicGrid<CellT> newBoard = new DynamicGrid<>();
+        StampGrid newStamps = lazy ? new StampGrid(0, newColHead.size(), INVALID) : null;
+
+        for (int r = 0; r < newRowHead.size(); r++) {
+            int oldR = b.rowOrigin(r);
+            if (oldR == TableBatch.CHANGED && !lazy) {
+                // nothing to copy: let a batch combiner fill the whole row
+                newBoard.addRow(r, computeRow(newRowHead.get(r), newColHead));
+                continue;
+            }
+            DynamicArray<CellT> row = new DynamicArray<>(Math.max(1, newColHead.size()));
+            int[] rowStamps = lazy ? new int[newColHead.size()] : null;
+            for (int c = 0; c < newColHead.size(); c++) {
+                int oldC = b.colOrigin(c);
+                boolean kept = oldR != TableBatch.CHANGED && oldC != TableBatch.CHANGED;
+                if (lazy) {
+                    row.add(kept ? board.get(oldR, oldC) : null);
+                    rowStamps[c] = kept ? stamps.get(oldR, oldC) : INVALID;
+                } else {
+                    row.add(kept ? board.get(oldR, oldC) : evaluate(newRowHead.get(r), newColHead.get(c)));
+                }
+            }
+            newBoard.addRow(r, row);
+            if (lazy) {
+                newStamps.addRow(r, rowStamps);
+            }
+        }
+
+        rowHead = newRowHead;
+        colHead = newColHead;
+        board = newBoard;
+        invalidateAggregates();
+        if (rowIndex != null) {
+            rowIndex.rebuild(rowHead);
+            colIndex.rebuild(colHead);
+        }
+        stamps = newStamps;
+
+        if (op instanceof RowObserver) {
+            // old rows that no new row was copied from are gone
+            boolean[] kept = new boolean[oldRowHead.size()];
+            for (int r = 0; r < newRowHead.size(); r++) {
+                if (b.rowOrigin(r) != TableBatch.CHANGED) {
+                    kept[b.rowOrigin(r)] = true;
+                }
+            }
+            for (int r = 0; r < kept.length; r++) {
+                if (!kept[r]) {
+                    rowGone(oldRowHead.get(r));
+                }
+            }
+        }
+    }
+
     // --------------------------------------------------------
     // PROVIDED for you to help with testing
     // More testing code you can change further down...
@@ -333,6 +1403,8 @@ public class Table<RowT, ColT, CellT, OpT extends Combiner<RowT, ColT, CellT>> {
 
     /**
      * Find the width we should use to print the specified column.
+     * Widths are kept up to date as cells change, so only columns whose widest
+     * cell was replaced or removed have to be measured again.
      *
      * @param colIndex column index to specify which column of the grid to check
      *                 width
@@ -340,13 +1412,34 @@ public class Table<RowT, ColT, CellT, OpT extends Combiner<RowT, ColT, CellT>> {
      */
 
     private int getColMaxWidth(int colIndex) {
-        int ans = -1;
-        for (int i = 0; i < this.getSizeRow(); i++) {
-            int width = (this.getCell(i, colIndex)).toString().length();
-            if (ans < width)
-                ans = width;
+        if (this.getSizeRow() == 0) {
+            return 0;
         }
-        return ans + 1;
+        ColumnWidths w = trackedWidths();
+        if (w == null) {
+            w = new ColumnWidths(getSizeCol());
+            if (!lazy) {
+                // start tracking: from now on cell changes keep the widths up to date
+                widths = w;
+                widthsBoard = board;
+            }
+        }
+        if (w.get(colIndex) == ColumnWidths.UNKNOWN) {
+            w.reset(colIndex);
+            for (int i = 0; i < this.getSizeRow(); i++) {
+                w.add(colIndex, ColumnWidths.widthOf(this.getCell(i, colIndex)));
+            }
+        }
+        return w.get(colIndex) + 1;
+    }
+
+    /**
+     * Returns the column widths that cell changes must keep up to date.
+     *
+     * @return the widths of the current board, or null if widths are not being tracked
+     */
+    private ColumnWidths trackedWidths() {
+        return widths != null && widthsBoard == board && !lazy ? widths : null;
     }
 
     /**
@@ -366,49 +1459,223 @@ public class Table<RowT, ColT, CellT, OpT extends Combiner<RowT, ColT, CellT>> {
     }
 
     /**
-     * Construct a string representation of the table.
+     * Saves the headers, the cells and the class of the op to a binary file that
+     * {@link #restore(Path, Combiner)} can load without calling the op.
+     * <p>
+     * Integer and Color headers or cells are written as packed int arrays, Strings as
+     * UTF-8, and any other values with Java serialization, so they have to be
+     * Serializable. A CRC32 checksum of the contents ends the file. In lazy mode
+     * every out-of-date cell is computed first.
      *
-     * @return a string representation of the table
+     * @param file where to write, replaced if it exists
+     * @throws IOException if the file cannot be written or a value cannot be serialized
+     * @implNote O(RC)
      */
+    public void checkpoint(Path file) throws IOException {
+        int numRow = rowHead.size();
+        int numCol = colHead.size();
+        try (DataOutputStream raw = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+            CRC32 crc = new CRC32();
+            DataOutputStream out = new DataOutputStream(new CheckedOutputStream(raw, crc));
+            out.writeInt(TableCheckpoint.MAGIC);
+            out.writeInt(TableCheckpoint.VERSION);
+            out.writeUTF(op.getClass().getName());
+            out.writeInt(numRow);
+            out.writeInt(numCol);
+            TableCheckpoint.writeValues(out, numRow, rowHead::get);
+            TableCheckpoint.writeValues(out, numCol, colHead::get);
+            TableCheckpoint.writeValues(out, numRow * numCol, k -> getCell(k / numCol, k % numCol));
+            raw.writeLong(crc.getValue());
+        }
+    }
 
-    @Override
-    public String toString() {
+    /**
+     * Loads a table saved by {@link #checkpoint(Path)}.
+     * <p>
+     * The headers and cells are read in one pass into arrays of exactly the right
+     * size and op is never called. The restored table is eager, with no cache,
+     * header index, aggregates or concurrency set up. Only boxed primitives,
+     * Strings and Colors are accepted as serialized headers or cells; use
+     * {@link #restore(Path, Combiner, Class...)} for other value classes.
+     *
+     * @param <RowT>  the type of row header values
+     * @param <ColT>  the type of column header values
+     * @param <CellT> the type of cell values
+     * @param <OpT>   a combiner type that implements {@link Combiner}
+     * @param file    the checkpoint
+     * @param op      the op of the restored table, of the same class as the saved table's op
+     * @return the restored table
+     * @throws IOException if the file cannot be read, is corrupt, was written by
+     *                     another format version, or was saved with another class of op
+     * @implNote O(RC)
+     */
+    public static <RowT, ColT, CellT, OpT extends Combiner<RowT, ColT, CellT>> Table<RowT, ColT, CellT, OpT>
+            restore(Path file, OpT op) throws IOException {
+        return restore(file, op, new Class<?>[0]);
+    }
+
+    /**
+     * Loads a table saved by {@link #checkpoint(Path)} whose headers or cells may
+     * be serialized objects of the given classes.
+     * <p>
+     * Serialized values are only deserialized if they are boxed primitives, Strings,
+     * Colors or of one of valueClasses (fields included); any other class in the
+     * file makes the restore fail before an instance of it is created.
+     *
+     * @param <RowT>       the type of row header values
+     * @param <ColT>       the type of column header values
+     * @param <CellT>      the type of cell values
+     * @param <OpT>        a combiner type that implements {@link Combiner}
+     * @param file         the checkpoint
+     * @param op           the op of the restored table, of the same class as the saved table's op
+     * @param valueClasses the serializable classes headers, cells and their fields may have
+     * @return the restored table
+     * @throws IOException if the file cannot be read, is corrupt, was written by
+     *                     another format version, was saved with another class of op,
+     *                     or holds a serialized class that is not allowed
+     * @implNote O(RC)
+     */
+    @SuppressWarnings("unchecked")
+    public static <RowT, ColT, CellT, OpT extends Combiner<RowT, ColT, CellT>> Table<RowT, ColT, CellT, OpT>
+            restore(Path file, OpT op, Class<?>... valueClasses) throws IOException {
+        long fileSize = Files.size(file);
+        try (DataInputStream raw = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            CRC32 crc = new CRC32();
+            DataInputStream in = new DataInputStream(new CheckedInputStream(raw, crc));
+            if (in.readInt() != TableCheckpoint.MAGIC) {
+                throw new IOException("Not a table checkpoint!");
+            }
+            int version = in.readInt();
+            if (version != TableCheckpoint.VERSION) {
+                throw new IOException("Unsupported checkpoint version " + version + "!");
+            }
+            String opName = in.readUTF();
+            if (!opName.equals(op.getClass().getName())) {
+                throw new IOException("Checkpoint was saved with op " + opName + "!");
+            }
+            int numRow = in.readInt();
+            int numCol = in.readInt();
+            // every header and cell takes at least one byte
+            if (numRow < 0 || numCol < 0 || (long) numRow * numCol > Integer.MAX_VALUE
+                    || numRow + (long) numCol + (long) numRow * numCol > fileSize) {
+                throw new IOException("Corrupt checkpoint!");
+            }
+
+            DynamicArray<RowT> rows = new DynamicArray<>(Math.max(1, numRow));
+            TableCheckpoint.readValues(in, numRow, valueClasses, v -> rows.add((RowT) v));
+            DynamicArray<ColT> cols = new DynamicArray<>(Math.max(1, numCol));
+            TableCheckpoint.readValues(in, numCol, valueClasses, v -> cols.add((ColT) v));
+            DynamicArray<DynamicArray<CellT>> cells = new DynamicArray<>(Math.max(1, numRow));
+            for (int r = 0; r < numRow; r++) {
+                cells.add(new DynamicArray<>(Math.max(1, numCol)));
+            }
+            int[] next = {0}; // index of the next cell, row by row
+            TableCheckpoint.readValues(in, numRow * numCol, valueClasses,
+                    v -> cells.get(next[0]++ / numCol).add((CellT) v));
+
+            long expected = crc.getValue();
+            if (raw.readLong() != expected || raw.read() != -1) {
+                throw new IOException("Corrupt checkpoint!");
+            }
+
+            Table<RowT, ColT, CellT, OpT> table = new Table<>(op);
+            table.rowHead = rows;
+            table.colHead = cols;
+            for (int r = 0; r < numRow; r++) {
+                table.board.adoptRow(cells.get(r));
+            }
+            return table;
+        }
+    }
+
+    /**
+     * Writes value right-aligned in a field of the given width, without building
+     * any intermediate strings for the padding.
+     *
+     * @param out   where to write
+     * @param value the value to print
+     * @param width the field width
+     * @throws IOException if out fails
+     */
+    private static void pad(Appendable out, Object value, int width) throws IOException {
+        // a CharSequence, e.g. a lazy cell, is streamed instead of turned into a String
+        CharSequence text = value instanceof CharSequence ? (CharSequence) value : String.valueOf(value);
+        for (int k = text.length(); k < width; k++) {
+            out.append(' ');
+        }
+        out.append(text);
+    }
+
+    /**
+     * Streams the same text as {@link #toString()} to out, one row at a time.
+     * <p>
+     * Column widths come from the incrementally maintained widths, so every cell
+     * is turned into a string once while it is written.
+     *
+     * @param out where to write the table, e.g. a Writer or a StringBuilder
+     * @throws IOException if out fails
+     * @implNote O(RC), plus O(R) for each column whose widest cell changed
+     */
+    public void render(Appendable out) throws IOException {
 
         if (getSizeRow() == 0 && getSizeCol() == 0) {
-            return "Empty Table";
+            out.append("Empty Table");
+            return;
         }
 
         // basic info of op and size
-        StringBuilder sb = new StringBuilder("============================\nTable\n");
-        sb.append("Operation: " + op.getClass() + "\n");
-        sb.append("Size: " + getSizeRow() + " rows, " + getSizeCol() + " cols\n");
+        out.append("============================\nTable\n");
+        out.append("Operation: ").append(String.valueOf(op.getClass())).append('\n');
+        out.append("Size: ").append(String.valueOf(getSizeRow())).append(" rows, ")
+                .append(String.valueOf(getSizeCol())).append(" cols\n");
 
         // decide how many chars to use for rowHead
         int rowHeadWidth = getRowHeadMaxWidth();
         int totalWidth = rowHeadWidth;
-        DynamicArray<Integer> colWidths = new DynamicArray<>();
-        sb.append(String.format(String.format("%%%ds", rowHeadWidth), " "));
+        int[] colWidths = new int[getSizeCol()];
+        pad(out, " ", rowHeadWidth);
 
         // colHead
         for (int i = 0; i < getSizeCol(); i++) {
-            int colWidth = getColMaxWidth(i);
-            colWidths.add(colWidth);
-            totalWidth += colWidth + 1;
-            sb.append(String.format(String.format("|%%%ds", colWidth), colHead.get(i)));
+            colWidths[i] = getColMaxWidth(i);
+            totalWidth += colWidths[i] + 1;
+            out.append('|');
+            pad(out, colHead.get(i), colWidths[i]);
         }
 
-        sb.append("\n" + String.format(String.format("%%%ds", totalWidth), " ").replace(" ", "-") + "\n");
+        out.append('\n');
+        for (int k = 0; k < totalWidth; k++) {
+            out.append('-');
+        }
+        out.append('\n');
 
         // row by row
         for (int i = 0; i < getSizeRow(); i++) {
-            sb.append(String.format(String.format("%%%ds", rowHeadWidth), rowHead.get(i)));
+            pad(out, rowHead.get(i), rowHeadWidth);
             for (int j = 0; j < getSizeCol(); j++) {
-                int colWidth = colWidths.get(j);
-                sb.append(String.format(String.format("|%%%ds", colWidth), board.get(i, j)));
+                out.append('|');
+                pad(out, getCell(i, j), colWidths[j]);
             }
-            sb.append("\n");
+            out.append('\n');
+        }
+        out.append("============================\n");
+    }
+
+    /**
+     * Construct a string representation of the table.
+     *
+     * @return a string representation of the table
+     */
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        try {
+            render(sb);
+        } catch (IOException e) {
+            // a StringBuilder never fails
+            throw new IllegalStateException(e);
         }
-        sb.append("============================\n");
         return sb.toString();
 
     }
@@ -465,7 +1732,238 @@ public class Table<RowT, ColT, CellT, OpT extends Combiner<RowT, ColT, CellT>> {
         }
         // System.out.println(itable.toString());
 
+        Table<Integer, Integer, Integer, IntegerComb> ltable = new Table<>(new IntegerAdder(), true);
+        for (int i = 0; i < 100; i++) {
+            ltable.addRow(i, i);
+            ltable.addCol(i, i * 100);
+        }
+        ltable.setOp(new IntegerTimer());
+        if (ltable.getEvaluationCount() == 0 && ltable.getCell(3, 2) == 600
+                && ltable.getCell(3, 2) == 600 && ltable.getEvaluationCount() == 1) {
+            System.out.println("Yay 6");
+        }
+        ltable.setRow(3, 5);
+        ltable.getCell(0, 0);
+        ltable.resetEvaluationCount();
+        ltable.setLazy(false);
+        if (ltable.getCell(3, 2) == 1000 && ltable.getEvaluationCount() == 100 * 100 - 1) {
+            System.out.println("Yay 7");
+        }
+
+
+
+        Table<String, String, Integer, SubstringCounter> ctable = new Table<>(new SubstringCounter());
+        ctable.enableCache(16);
+        for (int i = 0; i < 10; i++) {
+            ctable.addRow(i, i % 2 == 0 ? "abab" : "aaaa");
+        }
+        ctable.addCol(0, "ab");
+        ctable.addCol(1, "a");
+        if (ctable.getEvaluationCount() == 4 && ctable.getCell(8, 0) == 2 && ctable.getCell(9, 1) == 4
+                && ctable.getCache().getHits() == 16) {
+            System.out.println("Yay 8");
+        }
+
+        Table<Integer, Integer, Integer, IntegerComb> btable = new Table<>(new IntegerAdder());
+        btable.addRow(0, 1);
+        btable.addCol(0, 10);
+        btable.resetEvaluationCount();
+        DynamicArray<TableBatch<Integer, Integer>> keptBatch = new DynamicArray<>();
+        btable.batch(b -> {
+            keptBatch.add(b);
+            for (int i = 0; i < 3; i++) {
+                b.addRow(b.getSizeRow(), 2 + i);
+                b.addCol(b.getSizeCol(), 20 + i * 10);
+            }
+            b.setRow(3, 100);
+            b.removeCol(1);
+        });
+        boolean sealed = false;
+        try {
+            keptBatch.get(0).setCol(0, 99);
+        } catch (IllegalStateException e) {
+            sealed = true;
+        }
+        if (sealed && btable.getColHead(0) == 10
+                && btable.getSizeRow() == 4 && btable.getSizeCol() == 3 && btable.getEvaluationCount() == 4 * 3 - 1
+                && btable.getCell(0, 0) == 11 && btable.getCell(3, 2) == 140 && btable.getCell(2, 1) == 33) {
+            System.out.println("Yay 9");
+        }
+
+        Table<Integer, Integer, Integer, Combiner<Integer, Integer, Integer>> stable2 = new Table<>((a, b) -> {
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return a + b;
+        });
+        stable2.setConcurrent(100, 5000);
+        long start = System.nanoTime();
+        for (int i = 0; i < 10; i++) {
+            stable2.addRow(i, i);
+        }
+        stable2.addCol(0, 10);
+        stable2.setOp((a, b) -> a * b);
+        long ms = (System.nanoTime() - start) / 1000000;
+        boolean concurrentOk = stable2.getCell(9, 0) == 90 && stable2.getEvaluationCount() == 20 && ms < 10 * 50;
+        stable2.setSequential();
+        stable2.setOp((a, b) -> a - b);
+        if (concurrentOk && !stable2.isConcurrent() && stable2.getCell(9, 0) == -1) {
+            System.out.println("Yay 10");
+        }
+
+        Table<Integer, Integer, Integer, IntegerComb> atable = new Table<>(new IntegerAdder());
+        for (int i = 0; i < 200; i++) {
+            atable.addRow(i, i);
+            atable.addCol(i, i);
+        }
+        CompletableFuture<Void> first = atable.setOpAsync(new IntegerTimer() {
+            @Override
+            public int combineAsInt(int operand1, int operand2) {
+                Thread.yield();
+                return operand1 * operand2;
+            }
+
+            @Override
+            public void combineRow(int operand1, int[] operands2, int[] out, int n) {
+                for (int k = 0; k < n; k++) {
+                    out[k] = combineAsInt(operand1, operands2[k]);
+                }
+            }
+        });
+        CompletableFuture<Void> second = atable.setOpAsync(new IntegerAdder());
+        second.join();
+        if (first.isCancelled() && atable.getCell(199, 199) == 398) {
+            System.out.println("Yay 11");
+        }
+
+        Table<String, String, String, StringAdder> htable = new Table<>(new StringAdder());
+        htable.enableHeaderIndex();
+        for (int i = 0; i < 50; i++) {
+            htable.addRow(i, "r" + i);
+        }
+        htable.addCol(0, "b");
+        htable.addCol(0, "a");
+        htable.removeRow(0);
+        htable.setRow(10, "r5");
+        htable.addRow(htable.getSizeRow(), "last");
+        if (htable.indexOfRow("r5") == 4 && htable.indexOfRow("r0") == -1 && htable.indexOfRow("last") == 49
+                && htable.indexOfCol("b") == 1 && htable.getCellByHead("r49", "a").equals("r49 a")) {
+            System.out.println("Yay 12");
+        }
+
+        Table<Integer, Integer, Integer, IntegerComb> gtable = new Table<>(new IntegerAdder());
+        TableAggregate<Integer, Integer> sums = gtable.addAggregate(Aggregator.sum());
+        TableAggregate<Integer, Integer> maxes = gtable.addAggregate(Aggregator.max());
+        for (int i = 0; i < 4; i++) {
+            gtable.addRow(i, i);
+            gtable.addCol(i, i * 10);
+        }
+        // rows 0..3, cols 0,10,20,30: total = 4 * 60 + 4 * 6 = 264
+        int before = sums.getTotal();
+        gtable.setRow(3, 100);
+        gtable.removeCol(0);
+        if (before == 264 && sums.getRow(3) == 360 && sums.getCol(0) == 143 && maxes.getCol(2) == 130
+                && sums.getTotal() == 549 && maxes.getTotal() == 130) {
+            System.out.println("Yay 13");
+        }
+        gtable.setOp(new IntegerTimer());
+        if (sums.getRow(3) == 6000 && maxes.getRow(0) == 0) {
+            System.out.println("Yay 14");
+        }
+
+        Table<Integer, Integer, Integer, IntegerComb> ytable = new Table<>(new IntegerAdder());
+        for (int i = 0; i < 10; i++) {
+            ytable.addRow(i, i * 3);
+            ytable.addCol(i, i * 3);
+        }
+        ytable.resetEvaluationCount();
+        ytable.setOp(new IntegerTimer());
+        if (ytable.getEvaluationCount() == 10 * 11 / 2 && ytable.getCell(9, 2) == 27 * 6
+                && ytable.getCell(2, 9) == 27 * 6) {
+            System.out.println("Yay 15");
+        }
+
+        try {
+            Path file = Files.createTempFile("table", ".ckpt");
+            ytable.checkpoint(file);
+            Table<Integer, Integer, Integer, IntegerComb> back = Table.restore(file, new IntegerTimer());
+            boolean same = back.getSizeRow() == 10 && back.getSizeCol() == 10 && back.getEvaluationCount() == 0;
+            for (int i = 0; i < 10; i++) {
+                for (int j = 0; j < 10; j++) {
+                    same = same && back.getCell(i, j).equals(ytable.getCell(i, j));
+                }
+            }
+            boolean wrongOp = false;
+            try {
+                Table.restore(file, new IntegerAdder());
+            } catch (IOException e) {
+                wrongOp = true;
+            }
+            byte[] bytes = Files.readAllBytes(file);
+            bytes[bytes.length / 2] ^= 1;
+            Files.write(file, bytes);
+            boolean corrupt = false;
+            try {
+                Table.restore(file, new IntegerTimer());
+            } catch (IOException e) {
+                corrupt = true;
+            }
+            stable.checkpoint(file);
+            Table<String, String, String, StringAdder> sback = Table.restore(file, sa);
+            Combiner<Integer, Integer, StringBuilder> builder = (a, b) -> new StringBuilder().append(a).append(b);
+            Table<Integer, Integer, StringBuilder, Combiner<Integer, Integer, StringBuilder>> sbtable = new Table<>(builder);
+            sbtable.addRow(0, 1);
+            sbtable.addCol(0, 2);
+            sbtable.checkpoint(file);
+            boolean filtered = false;
+            try {
+                Table.restore(file, builder);
+            } catch (IOException e) {
+                filtered = true;
+            }
+            boolean allowed = Table.restore(file, builder, StringBuilder.class).getCell(0, 0).toString().equals("12");
+            Files.delete(file);
+            if (same && wrongOp && corrupt && sback.toString().equals(stable.toString()) && filtered && allowed) {
+                System.out.println("Yay 16");
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
 
+        DynamicArray<Integer> heads = new DynamicArray<>();
+        for (int i = 0; i < 40; i++) {
+            heads.add(i * 7 - 50);
+        }
+        Table<Integer, Integer, Integer, IntegerComb> bulk = Table.of(new IntegerTimer(), heads, heads);
+        Table<Integer, Integer, Integer, IntegerComb> pbulk = Table.of(new IntegerTimer(), heads, heads, true);
+        Table<Integer, Integer, Integer, IntegerComb> slow = new Table<>(new IntegerTimer());
+        for (int i = 0; i < heads.size(); i++) {
+            slow.addRow(i, heads.get(i));
+            slow.addCol(i, heads.get(i));
+        }
+        pbulk.addRow(3, 1000);
+        pbulk.removeRow(3);
+        if (bulk.getEvaluationCount() == 40 * 40 && bulk.toString().equals(slow.toString())
+                && pbulk.toString().equals(slow.toString())) {
+            System.out.println("Yay 17");
+        }
+
+        Table<Integer, Integer, Integer, IntegerComb> dtable = new Table<>(new IntegerAdder());
+        dtable.addRow(0, 1000);
+        dtable.addCol(0, 0);
+        dtable.enableCellPool(1024);
+        for (int i = 1; i < 100; i++) {
+            dtable.addRow(i, 1000 + i);
+            dtable.addCol(i, i);
+        }
+        // 10000 cells but only 199 distinct sums, all outside the Integer cache
+        CellPool<Integer> cp = dtable.getCellPool();
+        if (dtable.getCell(0, 1) == dtable.getCell(1, 0) && dtable.getCell(99, 99) == 1198 && cp.size() == 199
+                && cp.getSaved() == cp.getLookups() - 199) {
+            System.out.println("Yay 18");
+        }
 
         Table<Integer, Integer,Integer,IntegerTimer> multTable = new Table<>(new IntegerTimer());
 
@@ -0,0 +1,361 @@
+import java.util.stream.IntStream;
+
+/**
+ * Row, column and whole-table aggregates of a {@link Table}'s cells, kept up to
+ * date by the table as its cells change.
+ * <p>
+ * Added cells are merged in O(1). Removed or replaced cells are taken back out in
+ * O(1) when the {@link Aggregator} is invertible; otherwise only the affected row,
+ * column and total are marked dirty and reduced again on their next read, which
+ * costs O(C), O(R) and O(R) respectively. After the whole board changes (e.g. a new
+ * op) everything is rebuilt on the next read, with a parallel reduction for large
+ * tables. Aggregators are assumed to be commutative, since rows and columns can be
+ * inserted anywhere.
+ *
+ * @param <C> the type of cells being aggregated
+ * @param <V> the type of the aggregated value
+ * @author Ismoil Aknazarov
+ */
+public class TableAggregate<C, V> {
+
+    private static final int PARALLEL_THRESHOLD = 1 << 14; // min number of cells for a parallel rebuild
+
+    private final Aggregator<? super C, V> agg;
+    private final Table<?, ?, C, ?> table; // the table whose cells are aggregated
+
+    private DynamicArray<V> rowVals; // aggregate of each row
+    private DynamicArray<Boolean> rowDirty; // true if the row has to be reduced again
+    private DynamicArray<V> colVals; // aggregate of each column
+    private DynamicArray<Boolean> colDirty; // true if the column has to be reduced again
+    private V total; // aggregate of every cell
+    private boolean totalDirty; // true if total has to be reduced again from the rows
+    private boolean allDirty; // true if nothing is known and everything must be rebuilt
+
+    /**
+     * Creates an aggregate of a table; everything is computed on the first read.
+     *
+     * @param agg   how to aggregate cells
+     * @param table the table
+     */
+    TableAggregate(Aggregator<? super C, V> agg, Table<?, ?, C, ?> table) {
+        this.agg = agg;
+        this.table = table;
+        this.allDirty = true;
+    }
+
+    /**
+     * Returns the aggregate of one row.
+     *
+     * @param r row index
+     * @return the aggregate of the cells of row r
+     * @throws IndexOutOfBoundsException if {@code r} is invalid
+     * @implNote O(1) unless the row is dirty
+     */
+    public V getRow(int r) {
+        table.catchUpAsync();
+        if (r < 0 || r >= table.getSizeRow()) {
+            throw new IndexOutOfBoundsException("Out of bound!");
+        }
+        if (allDirty) {
+            rebuild();
+        }
+        if (rowDirty.get(r)) {
+            rowVals.set(r, reduceRow(r));
+            rowDirty.set(r, false);
+        }
+        return rowVals.get(r);
+    }
+
+    /**
+     * Returns the aggregate of one column.
+     *
+     * @param c column index
+     * @return the aggregate of the cells of column c
+     * @throws IndexOutOfBoundsException if {@code c} is invalid
+     * @implNote O(1) unless the column is dirty
+     */
+    public V getCol(int c) {
+        table.catchUpAsync();
+        if (c < 0 || c >= table.getSizeCol()) {
+            throw new IndexOutOfBoundsException("Out of bound!");
+        }
+        if (allDirty) {
+            rebuild();
+        }
+        if (colDirty.get(c)) {
+            colVals.set(c, reduceCol(c));
+            colDirty.set(c, false);
+        }
+        return colVals.get(c);
+    }
+
+    /**
+     * Returns the aggregate of every cell of the table.
+     *
+     * @return the aggregate of the whole board
+     * @implNote O(1) unless the total is dirty
+     */
+    public V getTotal() {
+        table.catchUpAsync();
+        if (allDirty) {
+            rebuild();
+        }
+        if (totalDirty) {
+            V t = agg.identity();
+            for (int r = 0; r < rowVals.size(); r++) {
+                t = agg.merge(t, getRow(r));
+            }
+            total = t;
+            totalDirty = false;
+        }
+        return total;
+    }
+
+    /**
+     * Accounts for a row inserted into the table.
+     *
+     * @param i     the index of the new row
+     * @param cells the cells of the new row
+     */
+    void rowAdded(int i, DynamicArray<C> cells) {
+        if (allDirty) {
+            return;
+        }
+        V rv = reduce(cells);
+        rowVals.add(i, rv);
+        rowDirty.add(i, false);
+        for (int c = 0; c < cells.size(); c++) {
+            if (!colDirty.get(c)) {
+                colVals.set(c, agg.merge(colVals.get(c), agg.lift(cells.get(c))));
+            }
+        }
+        if (!totalDirty) {
+            total = agg.merge(total, rv);
+        }
+    }
+
+    /**
+     * Accounts for a row removed from the table.
+     *
+     * @param i     the index the row had
+     * @param cells the cells of the removed row
+     */
+    void rowRemoved(int i, DynamicArray<C> cells) {
+        if (allDirty) {
+            return;
+        }
+        V rv = rowVals.remove(i);
+        boolean wasDirty = rowDirty.remove(i);
+        for (int c = 0; c < cells.size(); c++) {
+            takeOut(colVals, colDirty, c, agg.lift(cells.get(c)));
+        }
+        if (agg.isInvertible() && !wasDirty && !totalDirty) {
+            total = agg.unmerge(total, rv);
+        } else {
+            totalDirty = true;
+        }
+    }
+
+    /**
+     * Accounts for a column inserted into the table.
+     *
+     * @param i     the index of the new column
+     * @param cells the cells of the new column
+     */
+    void colAdded(int i, DynamicArray<C> cells) {
+        if (allDirty) {
+            return;
+        }
+        V cv = reduce(cells);
+        colVals.add(i, cv);
+        colDirty.add(i, false);
+        for (int r = 0; r < cells.size(); r++) {
+            if (!rowDirty.get(r)) {
+                rowVals.set(r, agg.merge(rowVals.get(r), agg.lift(cells.get(r))));
+            }
+        }
+        if (!totalDirty) {
+            total = agg.merge(total, cv);
+        }
+    }
+
+    /**
+     * Accounts for a column removed from the table.
+     *
+     * @param i     the index the column had
+     * @param cells the cells of the removed column
+     */
+    void colRemoved(int i, DynamicArray<C> cells) {
+        if (allDirty) {
+            return;
+        }
+        V cv = colVals.remove(i);
+        boolean wasDirty = colDirty.remove(i);
+        for (int r = 0; r < cells.size(); r++) {
+            takeOut(rowVals, rowDirty, r, agg.lift(cells.get(r)));
+        }
+        if (agg.isInvertible() && !wasDirty && !totalDirty) {
+            total = agg.unmerge(total, cv);
+        } else {
+            totalDirty = true;
+        }
+    }
+
+    /**
+     * Accounts for one cell being replaced.
+     *
+     * @param r        row index of the cell
+     * @param c        column index of the cell
+     * @param oldValue the previous cell
+     * @param newValue the new cell
+     */
+    void cellChanged(int r, int c, C oldValue, C newValue) {
+        if (allDirty) {
+            return;
+        }
+        V oldV = agg.lift(oldValue);
+        V newV = agg.lift(newValue);
+        replace(rowVals, rowDirty, r, oldV, newV);
+        replace(colVals, colDirty, c, oldV, newV);
+        if (agg.isInvertible() && !totalDirty) {
+            total = agg.merge(agg.unmerge(total, oldV), newV);
+        } else {
+            totalDirty = true;
+        }
+    }
+
+    /**
+     * Forgets everything, e.g. after the whole board was recomputed.
+     */
+    void invalidate() {
+        allDirty = true;
+        rowVals = null;
+        rowDirty = null;
+        colVals = null;
+        colDirty = null;
+        total = null;
+    }
+
+    /**
+     * Takes one value out of a row or column aggregate, or marks it dirty.
+     *
+     * @param vals  the row or column aggregates
+     * @param dirty their dirty flags
+     * @param k     which row or column
+     * @param v     the value to take out
+     */
+    private void takeOut(DynamicArray<V> vals, DynamicArray<Boolean> dirty, int k, V v) {
+        if (dirty.get(k)) {
+            return;
+        }
+        if (agg.isInvertible()) {
+            vals.set(k, agg.unmerge(vals.get(k), v));
+        } else {
+            dirty.set(k, true);
+        }
+    }
+
+    /**
+     * Replaces one value in a row or column aggregate, or marks it dirty.
+     *
+     * @param vals  the row or column aggregates
+     * @param dirty their dirty flags
+     * @param k     which row or column
+     * @param oldV  the value to take out
+     * @param newV  the value to put in
+     */
+    private void replace(DynamicArray<V> vals, DynamicArray<Boolean> dirty, int k, V oldV, V newV) {
+        if (dirty.get(k)) {
+            return;
+        }
+        if (agg.isInvertible()) {
+            vals.set(k, agg.merge(agg.unmerge(vals.get(k), oldV), newV));
+        } else {
+            dirty.set(k, true);
+        }
+    }
+
+    /**
+     * Recomputes every row, column and the total from the table's cells.
+     * Rows and columns are reduced in parallel on large tables.
+     *
+     * @implNote O(RC)
+     */
+    @SuppressWarnings("unchecked")
+    private void rebuild() {
+        int numRow = table.getSizeRow();
+        int numCol = table.getSizeCol();
+        Object[] rows = new Object[numRow];
+        Object[] cols = new Object[numCol];
+        if ((long) numRow * numCol >= PARALLEL_THRESHOLD) {
+            IntStream.range(0, numRow).parallel().forEach(r -> rows[r] = reduceRow(r));
+            IntStream.range(0, numCol).parallel().forEach(c -> cols[c] = reduceCol(c));
+        } else {
+            for (int r = 0; r < numRow; r++) {
+                rows[r] = reduceRow(r);
+            }
+            for (int c = 0; c < numCol; c++) {
+                cols[c] = reduceCol(c);
+            }
+        }
+
+        rowVals = new DynamicArray<>(Math.max(1, numRow));
+        rowDirty = new DynamicArray<>(Math.max(1, numRow));
+        total = agg.identity();
+        for (int r = 0; r < numRow; r++) {
+            rowVals.add((V) rows[r]);
+            rowDirty.add(false);
+            total = agg.merge(total, (V) rows[r]);
+        }
+        colVals = new DynamicArray<>(Math.max(1, numCol));
+        colDirty = new DynamicArray<>(Math.max(1, numCol));
+        for (int c = 0; c < numCol; c++) {
+            colVals.add((V) cols[c]);
+            colDirty.add(false);
+        }
+        totalDirty = false;
+        allDirty = false;
+    }
+
+    /**
+     * Reduces a list of cells.
+     *
+     * @param cells the cells
+     * @return their aggregate
+     */
+    private V reduce(DynamicArray<C> cells) {
+        V v = agg.identity();
+        for (int k = 0; k < cells.size(); k++) {
+            v = agg.merge(v, agg.lift(cells.get(k)));
+        }
+        return v;
+    }
+
+    /**
+     * Reduces one row of the table.
+     *
+     * @param r row index
+     * @return the aggregate of the row
+     */
+    private V reduceRow(int r) {
+        V v = agg.identity();
+        for (int c = 0; c < table.getSizeCol(); c++) {
+            v = agg.merge(v, agg.lift(table.getCell(r, c)));
+        }
+        return v;
+    }
+
+    /**
+     * Reduces one column of the table.
+     *
+     * @param c column index
+     * @return the aggregate of the column
+     */
+    private V reduceCol(int c) {
+        V v = agg.identity();
+        for (int r = 0; r < table.getSizeRow(); r++) {
+            v = agg.merge(v, agg.lift(table.getCell(r, c)));
+        }
+        return v;
+    }
+}
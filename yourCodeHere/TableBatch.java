@@ -0,0 +1,268 @@
+/**
+ * A set of header edits recorded against a {@link Table} and applied in one pass.
+ * <p>
+ * A batch starts as a copy of the table's row and column headers. Its methods
+ * mirror the structural and header methods of {@code Table}, but they only
+ * change the copy and remember, for every row and column, which row or column of
+ * the table it came from. When the batch is applied, cells whose row and column
+ * are both unchanged are copied over and every other cell is computed exactly once.
+ * The table takes over the batch's headers, so once applied a batch can no longer
+ * be edited.
+ *
+ * @param <RowT> the type of row header values
+ * @param <ColT> the type of column header values
+ * @author Ismoil Aknazarov
+ */
+public class TableBatch<RowT, ColT> {
+
+    /**
+     * Origin of a row or column that is new or whose header was changed.
+     */
+    static final int CHANGED = -1;
+
+    private DynamicArray<RowT> rowHead; // pending row headers
+    private DynamicArray<ColT> colHead; // pending column headers
+    private DynamicArray<Integer> rowOrigin; // table row index each pending row came from, or CHANGED
+    private DynamicArray<Integer> colOrigin; // table column index each pending column came from, or CHANGED
+    private boolean applied; // true once a table took over the headers
+
+    /**
+     * Starts a batch from the current headers of a table.
+     *
+     * @param rows the table's row headers
+     * @param cols the table's column headers
+     */
+    TableBatch(DynamicArray<RowT> rows, DynamicArray<ColT> cols) {
+        rowHead = new DynamicArray<>(Math.max(1, rows.size()));
+        rowOrigin = new DynamicArray<>(Math.max(1, rows.size()));
+        for (int i = 0; i < rows.size(); i++) {
+            rowHead.add(rows.get(i));
+            rowOrigin.add(i);
+        }
+        colHead = new DynamicArray<>(Math.max(1, cols.size()));
+        colOrigin = new DynamicArray<>(Math.max(1, cols.size()));
+        for (int i = 0; i < cols.size(); i++) {
+            colHead.add(cols.get(i));
+            colOrigin.add(i);
+        }
+    }
+
+    /**
+     * Returns the number of rows the table will have once the batch is applied.
+     *
+     * @return number of pending rows
+     * @implNote O(1)
+     */
+    public int getSizeRow() {
+        return rowHead.size();
+    }
+
+    /**
+     * Returns the number of columns the table will have once the batch is applied.
+     *
+     * @return number of pending columns
+     * @implNote O(1)
+     */
+    public int getSizeCol() {
+        return colHead.size();
+    }
+
+    /**
+     * Retrieves a pending row header.
+     *
+     * @param r row index
+     * @return the row header
+     * @throws IndexOutOfBoundsException if {@code r} is invalid
+     * @implNote O(1)
+     */
+    public RowT getRowHead(int r) {
+        if (r < 0 || r >= rowHead.size()) {
+            throw new IndexOutOfBoundsException("Out of bound!");
+        }
+        return rowHead.get(r);
+    }
+
+    /**
+     * Retrieves a pending column header.
+     *
+     * @param c column index
+     * @return the column header
+     * @throws IndexOutOfBoundsException if {@code c} is invalid
+     * @implNote O(1)
+     */
+    public ColT getColHead(int c) {
+        if (c < 0 || c >= colHead.size()) {
+            throw new IndexOutOfBoundsException("Out of bound!");
+        }
+        return colHead.get(c);
+    }
+
+    /**
+     * Records a new row at the specified index.
+     *
+     * @param i the row index where the row should be inserted
+     * @param v the row header value
+     * @return true if successfully added, false otherwise
+     * @throws IllegalStateException if the batch was already applied
+     * @implNote O(R)
+     */
+    public boolean addRow(int i, RowT v) {
+        checkOpen();
+        if (i < 0 || i > rowHead.size()) {
+            return false;
+        }
+        rowHead.add(i, v);
+        rowOrigin.add(i, CHANGED);
+        return true;
+    }
+
+    /**
+     * Records a new column at the specified index.
+     *
+     * @param i the column index where the column should be inserted
+     * @param v the column header value
+     * @return true if successfully added, false otherwise
+     * @throws IllegalStateException if the batch was already applied
+     * @implNote O(C)
+     */
+    public boolean addCol(int i, ColT v) {
+        checkOpen();
+        if (i < 0 || i > colHead.size()) {
+            return false;
+        }
+        colHead.add(i, v);
+        colOrigin.add(i, CHANGED);
+        return true;
+    }
+
+    /**
+     * Records the removal of a row.
+     *
+     * @param i the row index
+     * @return the removed row header
+     * @throws IndexOutOfBoundsException if index is invalid
+     * @throws IllegalStateException if the batch was already applied
+     * @implNote O(R)
+     */
+    public RowT removeRow(int i) {
+        checkOpen();
+        if (i < 0 || i >= rowHead.size()) {
+            throw new IndexOutOfBoundsException("Out of bound!");
+        }
+        rowOrigin.remove(i);
+        return rowHead.remove(i);
+    }
+
+    /**
+     * Records the removal of a column.
+     *
+     * @param i the column index
+     * @return the removed column header
+     * @throws IndexOutOfBoundsException if index is invalid
+     * @throws IllegalStateException if the batch was already applied
+     * @implNote O(C)
+     */
+    public ColT removeCol(int i) {
+        checkOpen();
+        if (i < 0 || i >= colHead.size()) {
+            throw new IndexOutOfBoundsException("Out of bound!");
+        }
+        colOrigin.remove(i);
+        return colHead.remove(i);
+    }
+
+    /**
+     * Records a new header for a row; the whole row is recomputed when applied.
+     *
+     * @param i the row index
+     * @param v the new row header value
+     * @return the old row header value
+     * @throws IndexOutOfBoundsException if index is invalid
+     * @throws IllegalStateException if the batch was already applied
+     * @implNote O(1)
+     */
+    public RowT setRow(int i, RowT v) {
+        checkOpen();
+        if (i < 0 || i >= rowHead.size()) {
+            throw new IndexOutOfBoundsException("Out of bound!");
+        }
+        rowOrigin.set(i, CHANGED);
+        return rowHead.set(i, v);
+    }
+
+    /**
+     * Records a new header for a column; the whole column is recomputed when applied.
+     *
+     * @param i the column index
+     * @param v the new column header value
+     * @return the old column header value
+     * @throws IndexOutOfBoundsException if index is invalid
+     * @throws IllegalStateException if the batch was already applied
+     * @implNote O(1)
+     */
+    public ColT setCol(int i, ColT v) {
+        checkOpen();
+        if (i < 0 || i >= colHead.size()) {
+            throw new IndexOutOfBoundsException("Out of bound!");
+        }
+        colOrigin.set(i, CHANGED);
+        return colHead.set(i, v);
+    }
+
+    /**
+     * Marks the batch as applied; later edits would change the table's headers
+     * behind its back, so they are refused.
+     */
+    void markApplied() {
+        applied = true;
+    }
+
+    /**
+     * Refuses edits once the batch was applied.
+     *
+     * @throws IllegalStateException if the batch was already applied
+     */
+    private void checkOpen() {
+        if (applied) {
+            throw new IllegalStateException("Batch was already applied!");
+        }
+    }
+
+    /**
+     * Returns the pending row headers.
+     *
+     * @return the row headers the table will have
+     */
+    DynamicArray<RowT> rows() {
+        return rowHead;
+    }
+
+    /**
+     * Returns the pending column headers.
+     *
+     * @return the column headers the table will have
+     */
+    DynamicArray<ColT> cols() {
+        return colHead;
+    }
+
+    /**
+     * Returns the table row a pending row came from.
+     *
+     * @param r pending row index
+     * @return the original row index, or {@link #CHANGED}
+     */
+    int rowOrigin(int r) {
+        return rowOrigin.get(r);
+    }
+
+    /**
+     * Returns the table column a pending column came from.
+     *
+     * @param c pending column index
+     * @return the original column index, or {@link #CHANGED}
+     */
+    int colOrigin(int c) {
+        return colOrigin.get(c);
+    }
+}
@@ -0,0 +1,243 @@
+import java.awt.Color;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputFilter;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
+
+/**
+ * The binary format used by {@link Table#checkpoint(java.nio.file.Path)} and
+ * {@link Table#restore(java.nio.file.Path, Combiner)}.
+ * <p>
+ * A checkpoint is: a magic number and format version, the class name of the op,
+ * the number of rows and columns, then the row headers, the column headers and the
+ * cells row by row as three value sections, and finally a CRC32 of everything
+ * before it. Each section starts with a kind byte. A section of Integers is
+ * written as one packed int array and a section of Colors as one packed ARGB int
+ * array; Strings are written as UTF-8; anything else is written with Java
+ * serialization, so it has to be {@link java.io.Serializable}. Serialized values
+ * are read back through a filter that only lets through the value classes the
+ * caller expects, so a crafted file cannot instantiate arbitrary classes.
+ *
+ * @author Ismoil Aknazarov
+ */
+final class TableCheckpoint {
+
+    /**
+     * First four bytes of every checkpoint, "TBLC".
+     */
+    static final int MAGIC = 0x54424C43;
+
+    /**
+     * Version of the format written by this class.
+     */
+    static final int VERSION = 1;
+
+    private static final byte KIND_INT = 1; // packed int array
+    private static final byte KIND_RGB = 2; // packed ARGB int array of Colors
+    private static final byte KIND_STRING = 3; // length-prefixed UTF-8 strings
+    private static final byte KIND_OBJECT = 4; // one serialized Object[]
+
+    private static final int CHUNK = 8192; // ints packed or unpacked at a time
+    private static final int MAX_DEPTH = 8; // deepest object graph a serialized value may have
+    private static final int MAX_SMALL_ARRAY = 1024; // longest array inside a serialized value
+
+    // serializable classes always accepted in a section of serialized values
+    private static final Class<?>[] BASIC = {Integer.class, Long.class, Short.class, Byte.class, Double.class,
+        Float.class, Character.class, Boolean.class, String.class, Color.class};
+
+    private TableCheckpoint() {
+    }
+
+    /**
+     * Writes one section of values, choosing the most compact kind that fits all of them.
+     *
+     * @param out   where to write
+     * @param n     the number of values
+     * @param value returns value k for k in [0, n)
+     * @throws IOException if out fails or a value cannot be serialized
+     * @implNote O(n)
+     */
+    static void writeValues(DataOutputStream out, int n, IntFunction<?> value) throws IOException {
+        // each value is fetched once, e.g. a lazy cell is computed only once
+        Object[] values = new Object[n];
+        for (int k = 0; k < n; k++) {
+            values[k] = value.apply(k);
+        }
+        byte kind = kindOf(values);
+        out.writeByte(kind);
+        if (kind == KIND_INT || kind == KIND_RGB) {
+            ByteBuffer packed = ByteBuffer.allocate(Math.min(n, CHUNK) * Integer.BYTES);
+            for (int k = 0; k < n; k++) {
+                Object v = values[k];
+                packed.putInt(kind == KIND_INT ? (Integer) v : ((Color) v).getRGB());
+                if (!packed.hasRemaining()) {
+                    out.write(packed.array(), 0, packed.position());
+                    packed.clear();
+                }
+            }
+            out.write(packed.array(), 0, packed.position());
+        } else if (kind == KIND_STRING) {
+            for (int k = 0; k < n; k++) {
+                byte[] utf = ((String) values[k]).getBytes(StandardCharsets.UTF_8);
+                out.writeInt(utf.length);
+                out.write(utf);
+            }
+        } else {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (ObjectOutputStream objects = new ObjectOutputStream(bytes)) {
+                objects.writeObject(values);
+            }
+            out.writeInt(bytes.size());
+            bytes.writeTo(out);
+        }
+    }
+
+    /**
+     * Reads one section of values written by {@link #writeValues(DataOutputStream, int, IntFunction)}.
+     *
+     * @param in      where to read from
+     * @param n       the number of values expected
+     * @param allowed classes serialized values may have besides the basic ones, with
+     *                their serializable superclasses
+     * @param sink    receives the values in order
+     * @throws IOException if in fails, the section is malformed or holds a class
+     *                     that is not allowed
+     * @implNote O(n)
+     */
+    static void readValues(DataInputStream in, int n, Class<?>[] allowed, Consumer<Object> sink)
+            throws IOException {
+        byte kind = in.readByte();
+        if (kind == KIND_INT || kind == KIND_RGB) {
+            ByteBuffer packed = ByteBuffer.allocate(Math.min(n, CHUNK) * Integer.BYTES);
+            packed.limit(0);
+            for (int k = 0; k < n; k++) {
+                if (!packed.hasRemaining()) {
+                    int len = Math.min(n - k, CHUNK) * Integer.BYTES;
+                    in.readFully(packed.array(), 0, len);
+                    packed.position(0).limit(len);
+                }
+                int v = packed.getInt();
+                sink.accept(kind == KIND_INT ? Integer.valueOf(v) : new Color(v, true));
+            }
+        } else if (kind == KIND_STRING) {
+            for (int k = 0; k < n; k++) {
+                byte[] utf = new byte[checkedLength(in.readInt(), 1)];
+                in.readFully(utf);
+                sink.accept(new String(utf, StandardCharsets.UTF_8));
+            }
+        } else if (kind == KIND_OBJECT) {
+            byte[] bytes = new byte[checkedLength(in.readInt(), 1)];
+            in.readFully(bytes);
+            Object[] values;
+            try (ObjectInputStream objects = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+                objects.setObjectInputFilter(filter(n, allowed));
+                values = (Object[]) objects.readObject();
+            } catch (ClassNotFoundException | ClassCastException | java.io.InvalidClassException e) {
+                throw new IOException("Corrupt checkpoint!", e);
+            }
+            if (values.length != n) {
+                throw new IOException("Corrupt checkpoint!");
+            }
+            for (int k = 0; k < n; k++) {
+                sink.accept(values[k]);
+            }
+        } else {
+            throw new IOException("Corrupt checkpoint!");
+        }
+    }
+
+    /**
+     * Builds the filter for a section of n serialized values: one Object[] of
+     * length n holding basic or allowed values, with a bounded depth.
+     *
+     * @param n       the number of values
+     * @param allowed extra value classes
+     * @return the filter
+     */
+    private static ObjectInputFilter filter(int n, Class<?>[] allowed) {
+        return info -> {
+            Class<?> c = info.serialClass();
+            if (info.depth() > MAX_DEPTH) {
+                return ObjectInputFilter.Status.REJECTED;
+            }
+            if (info.arrayLength() >= 0) {
+                // the top-level Object[] holds the n values; arrays inside values stay small
+                long max = info.depth() == 1 ? n : MAX_SMALL_ARRAY;
+                if (info.arrayLength() > max) {
+                    return ObjectInputFilter.Status.REJECTED;
+                }
+            }
+            if (c == null) {
+                return ObjectInputFilter.Status.UNDECIDED;
+            }
+            if (c == Object[].class || c.isArray() && c.getComponentType().isPrimitive()) {
+                return ObjectInputFilter.Status.ALLOWED;
+            }
+            if (isAllowed(c, BASIC) || isAllowed(c, allowed)) {
+                return ObjectInputFilter.Status.ALLOWED;
+            }
+            return ObjectInputFilter.Status.REJECTED;
+        };
+    }
+
+    /**
+     * Checks a class against a list of value classes.
+     *
+     * @param c       the class of a serialized object
+     * @param classes the value classes
+     * @return true if c is one of them or a superclass or interface of one
+     */
+    private static boolean isAllowed(Class<?> c, Class<?>[] classes) {
+        for (Class<?> a : classes) {
+            if (c.isAssignableFrom(a)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Picks the section kind for a list of values.
+     *
+     * @param values the values
+     * @return KIND_INT or KIND_RGB if every value is an Integer or Color, KIND_STRING
+     *         if every value is a String, KIND_OBJECT otherwise
+     */
+    private static byte kindOf(Object[] values) {
+        boolean ints = true;
+        boolean colors = true;
+        boolean strings = true;
+        for (int k = 0; k < values.length && (ints || colors || strings); k++) {
+            Object v = values[k];
+            ints = ints && v instanceof Integer;
+            colors = colors && v != null && v.getClass() == Color.class;
+            strings = strings && v instanceof String;
+        }
+        return ints ? KIND_INT : colors ? KIND_RGB : strings ? KIND_STRING : KIND_OBJECT;
+    }
+
+    /**
+     * Computes a buffer length read from a checkpoint, rejecting impossible ones
+     * before anything is allocated.
+     *
+     * @param count     number of elements
+     * @param bytesEach size of one element
+     * @return count * bytesEach
+     * @throws IOException if the length is negative or too large for an array
+     */
+    private static int checkedLength(int count, int bytesEach) throws IOException {
+        long length = (long) count * bytesEach;
+        if (count < 0 || length > Integer.MAX_VALUE - 8) {
+            throw new IOException("Corrupt checkpoint!");
+        }
+        return (int) length;
+    }
+}
@@ -0,0 +1,412 @@
+/**
+ * A table that keeps only the most recent rows, for append-and-expire workloads
+ * such as a rolling time window.
+ * <p>
+ * Rows live in a ring buffer with a fixed capacity. {@link #append(Object)} adds a
+ * row after the newest one and, once the window is full, evicts the oldest row in
+ * O(1): the head of the ring moves forward and the new row, computed in a spare
+ * cell array, trades places with the evicted row's array, so after the window
+ * fills up appending allocates nothing apart from what op.combine returns. Row 0
+ * is always the oldest row.
+ * Column capacity grows by doubling and shrinks by half when fewer than a third
+ * of the slots are used, like {@link DynamicArray}.
+ *
+ * @param <RowT>  the type of row header values
+ * @param <ColT>  the type of column header values
+ * @param <CellT> the type of cell values
+ * @param <OpT>   a combiner type that implements {@link Combiner} for combining row/col into a cell
+ * @author Ismoil Aknazarov
+ */
+public class WindowTable<RowT, ColT, CellT, OpT extends Combiner<RowT, ColT, CellT>> {
+
+    private static final int INITCAP = 2; // default initial capacity / minimum capacity
+
+    private final Object[] rowHead; // ring of row headers, rowHead.length is the window capacity
+    private final Object[][] board; // ring of rows, board[slot] has room for colCap cells
+    private Object[] spare; // row array a full window computes the next row into, or null
+    private int first; // slot of the oldest row
+    private int numRow;
+    private DynamicArray<ColT> colHead; // colHead as a list of ColT values
+    private int colCap; // number of columns every row array has room for
+    private OpT op; // op that defines a function f: f(RowT,ColT)-> CellT
+
+    /**
+     * Constructs an empty window.
+     *
+     * @param op       the combiner used to generate cell values from row and column headers
+     * @param capacity the maximum number of rows kept
+     * @throws IllegalArgumentException if {@code capacity < 1}
+     */
+    public WindowTable(OpT op, int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity cannot be less than one!");
+        }
+        rowHead = new Object[capacity];
+        board = new Object[capacity][];
+        colHead = new DynamicArray<>();
+        colCap = INITCAP;
+        this.op = op;
+    }
+
+    /**
+     * Returns the maximum number of rows kept.
+     *
+     * @return the window capacity
+     * @implNote O(1)
+     */
+    public int getCapacity() {
+        return rowHead.length;
+    }
+
+    /**
+     * Returns the number of rows in the window.
+     *
+     * @return number of rows
+     * @implNote O(1)
+     */
+    public int getSizeRow() {
+        return numRow;
+    }
+
+    /**
+     * Returns the number of columns in the table.
+     *
+     * @return number of columns
+     * @implNote O(1)
+     */
+    public int getSizeCol() {
+        return colHead.size();
+    }
+
+    /**
+     * Retrieves the row header at the specified index, 0 being the oldest row.
+     *
+     * @param r row index
+     * @return the row header
+     * @throws IndexOutOfBoundsException if {@code r} is invalid
+     * @implNote O(1)
+     */
+    @SuppressWarnings("unchecked")
+    public RowT getRowHead(int r) {
+        if (r < 0 || r >= numRow) {
+            throw new IndexOutOfBoundsException("Out of bound!");
+        }
+        return (RowT) rowHead[slot(r)];
+    }
+
+    /**
+     * Retrieves the column header at the specified index.
+     *
+     * @param c column index
+     * @return the column header
+     * @throws IndexOutOfBoundsException if {@code c} is invalid
+     * @implNote O(1)
+     */
+    public ColT getColHead(int c) {
+        if (c < 0 || c >= colHead.size()) {
+            throw new IndexOutOfBoundsException("Out of bound!");
+        }
+        return colHead.get(c);
+    }
+
+    /**
+     * Retrieves the cell value at the given row and column indices, row 0 being the oldest.
+     *
+     * @param r row index
+     * @param c column index
+     * @return the cell value
+     * @throws IndexOutOfBoundsException if indices are invalid
+     * @implNote O(1)
+     */
+    @SuppressWarnings("unchecked")
+    public CellT getCell(int r, int c) {
+        if (r < 0 || r >= numRow || c < 0 || c >= colHead.size()) {
+            throw new IndexOutOfBoundsException("Out of bound!");
+        }
+        return (CellT) board[slot(r)][c];
+    }
+
+    /**
+     * Adds a row after the newest one, evicting the oldest row if the window is full.
+     *
+     * @param v the row header value
+     * @return the evicted row header, or null if nothing was evicted
+     * @implNote O(C), no allocation once the window is full
+     */
+    @SuppressWarnings("unchecked")
+    public RowT append(RowT v) {
+        boolean full = numRow == rowHead.length;
+        int s = full ? first : slot(numRow);
+        // compute into an array no row uses yet so a failing op leaves the window unchanged
+        Object[] row;
+        if (full) {
+            if (spare == null) {
+                spare = new Object[colCap];
+            }
+            row = spare;
+        } else {
+            if (board[s] == null) {
+                board[s] = new Object[colCap];
+            }
+            row = board[s];
+        }
+        for (int c = 0; c < colHead.size(); c++) {
+            row[c] = op.combine(v, colHead.get(c));
+        }
+        RowT evicted = null;
+        if (full) {
+            // the oldest slot becomes the newest
+            evicted = (RowT) rowHead[s];
+            spare = board[s];
+            board[s] = row;
+            for (int c = 0; c < colHead.size(); c++) {
+                spare[c] = null;
+            }
+            first = (first + 1) % rowHead.length;
+        } else {
+            numRow++;
+        }
+        rowHead[s] = v;
+        return evicted;
+    }
+
+    /**
+     * Removes and returns the oldest row. Its cell array is kept for a later append.
+     *
+     * @return the removed row header
+     * @throws IndexOutOfBoundsException if the window is empty
+     * @implNote O(C)
+     */
+    @SuppressWarnings("unchecked")
+    public RowT removeOldest() {
+        if (numRow == 0) {
+            throw new IndexOutOfBoundsException("Out of bound!");
+        }
+        RowT removed = (RowT) rowHead[first];
+        rowHead[first] = null;
+        // drop references to the cells but keep the array
+        Object[] row = board[first];
+        for (int c = 0; c < colHead.size(); c++) {
+            row[c] = null;
+        }
+        first = (first + 1) % rowHead.length;
+        numRow--;
+        return removed;
+    }
+
+    /**
+     * Adds a new column at the specified index.
+     *
+     * @param i the column index where the column should be inserted
+     * @param v the column header value
+     * @return true if successfully added, false otherwise
+     * @implNote O(RC)
+     */
+    public boolean addCol(int i, ColT v) {
+        if (i < 0 || i > colHead.size()) {
+            return false;
+        }
+        // compute first so a failing op leaves the table unchanged
+        Object[] col = computeCol(v);
+        int numCol = colHead.size();
+        if (numCol == colCap) {
+            resizeCols(colCap * 2);
+        }
+        for (int r = 0; r < numRow; r++) {
+            Object[] row = board[slot(r)];
+            System.arraycopy(row, i, row, i + 1, numCol - i);
+            row[i] = col[r];
+        }
+        colHead.add(i, v);
+        return true;
+    }
+
+    /**
+     * Removes and returns the column header at the specified index.
+     *
+     * @param i the column index
+     * @return the removed column header
+     * @throws IndexOutOfBoundsException if index is invalid
+     * @implNote O(RC)
+     */
+    public ColT removeCol(int i) {
+        if (i < 0 || i >= colHead.size()) {
+            throw new IndexOutOfBoundsException("Out of bound!");
+        }
+        int numCol = colHead.size();
+        for (int r = 0; r < numRow; r++) {
+            Object[] row = board[slot(r)];
+            System.arraycopy(row, i + 1, row, i, numCol - i - 1);
+            row[numCol - 1] = null;
+        }
+        ColT removed = colHead.remove(i);
+        if (colHead.size() < colCap / 3) {
+            resizeCols(Math.max(INITCAP, colCap / 2));
+        }
+        return removed;
+    }
+
+    /**
+     * Replaces the column header at the specified index and recomputes its column.
+     *
+     * @param i the column index
+     * @param v the new column header value
+     * @return the old column header value
+     * @throws IndexOutOfBoundsException if index is invalid
+     * @implNote O(R)
+     */
+    public ColT setCol(int i, ColT v) {
+        if (i < 0 || i >= colHead.size()) {
+            throw new IndexOutOfBoundsException("Out of bound!");
+        }
+        Object[] col = computeCol(v);
+        for (int r = 0; r < numRow; r++) {
+            board[slot(r)][i] = col[r];
+        }
+        return colHead.set(i, v);
+    }
+
+    /**
+     * Computes the cells of a column without touching the table.
+     *
+     * @param v the column header value
+     * @return the cell of every row, oldest first
+     * @implNote O(R)
+     */
+    private Object[] computeCol(ColT v) {
+        Object[] col = new Object[numRow];
+        for (int r = 0; r < numRow; r++) {
+            col[r] = op.combine(getRowHead(r), v);
+        }
+        return col;
+    }
+
+    /**
+     * Updates the combiner operation and recalculates all cell values in place.
+     *
+     * @param op the new combiner
+     * @implNote O(RC)
+     */
+    public void setOp(OpT op) {
+        this.op = op;
+        for (int r = 0; r < numRow; r++) {
+            Object[] row = board[slot(r)];
+            RowT v = getRowHead(r);
+            for (int c = 0; c < colHead.size(); c++) {
+                row[c] = op.combine(v, colHead.get(c));
+            }
+        }
+    }
+
+    /**
+     * Maps a row index to its slot in the ring.
+     *
+     * @param r row index, 0 being the oldest
+     * @return the slot
+     */
+    private int slot(int r) {
+        int s = first + r;
+        return s < rowHead.length ? s : s - rowHead.length;
+    }
+
+    /**
+     * Moves every allocated row, in use or not, to an array of a new column capacity.
+     *
+     * @param capacity the new column capacity, at least the number of columns
+     */
+    private void resizeCols(int capacity) {
+        for (int s = 0; s < board.length; s++) {
+            if (board[s] != null) {
+                Object[] newRow = new Object[capacity];
+                System.arraycopy(board[s], 0, newRow, 0, colHead.size());
+                board[s] = newRow;
+            }
+        }
+        if (spare != null) {
+            spare = new Object[capacity];
+        }
+        colCap = capacity;
+    }
+
+    /**
+     * Returns a string representation of this table.
+     *
+     * @return a string containing the op, size and capacity
+     */
+    @Override
+    public String toString() {
+        return "WindowTable with operation " + op.getClass() + ", size " + numRow + " of " + rowHead.length
+                + " rows, " + colHead.size() + " cols";
+    }
+
+    // --------------------------------------------------------
+    // example testing code... edit this as much as you want!
+    // --------------------------------------------------------
+
+    public static void main(String[] args) {
+        WindowTable<Integer, Integer, Integer, IntegerComb> wtable = new WindowTable<>(new IntegerAdder(), 4);
+        for (int j = 0; j < 3; j++) {
+            wtable.addCol(j, (j + 1) * 100);
+        }
+        boolean ok = true;
+        for (int t = 0; t < 10; t++) {
+            Integer evicted = wtable.append(t);
+            ok = ok && (t < 4 ? evicted == null : evicted == t - 4);
+        }
+        if (ok && wtable.getSizeRow() == 4 && wtable.getRowHead(0) == 6 && wtable.getRowHead(3) == 9
+                && wtable.getCell(0, 0) == 106 && wtable.getCell(3, 2) == 309) {
+            System.out.println("Yay 1");
+        }
+
+        wtable.removeOldest();
+        wtable.addCol(0, 0);
+        wtable.removeCol(2);
+        wtable.setOp(new IntegerTimer());
+        wtable.append(10);
+        wtable.append(11);
+        if (wtable.getSizeRow() == 4 && wtable.getSizeCol() == 3 && wtable.getRowHead(0) == 8
+                && wtable.getCell(0, 0) == 0 && wtable.getCell(3, 1) == 1100 && wtable.getCell(2, 2) == 3000) {
+            System.out.println("Yay 2");
+        }
+
+        // an op that throws must leave the window unchanged
+        Combiner<Integer, Integer, Integer> picky = (a, b) -> {
+            if (a < 0 || b < 0) {
+                throw new IllegalArgumentException("Negative header!");
+            }
+            return a * 1000 + b;
+        };
+        WindowTable<Integer, Integer, Integer, Combiner<Integer, Integer, Integer>> ptable = new WindowTable<>(picky, 3);
+        for (int j = 0; j < 3; j++) {
+            ptable.addCol(j, j);
+        }
+        for (int t = 0; t < 5; t++) {
+            ptable.append(t);
+        }
+        int failed = 0;
+        for (int t = 0; t < 3; t++) {
+            try {
+                if (t == 0) {
+                    ptable.append(-1);
+                } else if (t == 1) {
+                    ptable.addCol(1, -1);
+                } else {
+                    ptable.setCol(2, -1);
+                }
+            } catch (IllegalArgumentException e) {
+                failed++;
+            }
+        }
+        boolean kept = ptable.getSizeRow() == 3 && ptable.getSizeCol() == 3;
+        for (int r = 0; r < 3; r++) {
+            for (int c = 0; c < 3; c++) {
+                kept = kept && ptable.getRowHead(r) == r + 2 && ptable.getColHead(c) == c
+                        && ptable.getCell(r, c) == (r + 2) * 1000 + c;
+            }
+        }
+        ptable.append(5);
+        if (failed == 3 && kept && ptable.getRowHead(0) == 3 && ptable.getCell(2, 2) == 5002) {
+            System.out.println("Yay 3");
+        }
+    }
+}